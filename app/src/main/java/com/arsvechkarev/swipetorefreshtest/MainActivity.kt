@@ -1,19 +1,28 @@
 package com.arsvechkarev.swipetorefreshtest
 
 import android.os.Bundle
-import android.os.Handler
 import androidx.appcompat.app.AppCompatActivity
 import com.arsvechkarev.swipetorefresh.CustomizableSwipeRefreshLayout
+import com.arsvechkarev.swipetorefresh.ktx.setOnRefresh
+import kotlinx.coroutines.MainScope
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.delay
 
 class MainActivity : AppCompatActivity() {
+
+    private val scope = MainScope()
+
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
         setContentView(R.layout.activity_main)
         val swipeToRefresh = findViewById<CustomizableSwipeRefreshLayout>(R.id.swipeRefreshRoot)
-        swipeToRefresh.setOnRefreshListener {
-            Handler().postDelayed({
-                swipeToRefresh.isRefreshing = false
-            }, 3000)
+        swipeToRefresh.setOnRefresh(scope) {
+            delay(3000)
         }
     }
-}
\ No newline at end of file
+
+    override fun onDestroy() {
+        super.onDestroy()
+        scope.cancel()
+    }
+}
@@ -1,14 +1,13 @@
 package com.arsvechkarev.swipetorefreshtest.lib
 
-import android.animation.ValueAnimator
 import android.content.Context
 import android.graphics.*
-import android.graphics.drawable.BitmapDrawable
-import android.graphics.drawable.Drawable
+import android.os.SystemClock
 import android.view.View
 import android.view.animation.Animation
 import androidx.annotation.Keep
 import com.arsvechkarev.swipetorefresh.BaseProgressView
+import com.arsvechkarev.swipetorefresh.ParticleSystem
 import com.arsvechkarev.swipetorefreshtest.R
 
 @Keep
@@ -21,40 +20,61 @@ class MySnowflakeView(context: Context) : BaseProgressView(context) {
     private val mainCircleTopPaint = Paint()
     private val mainCircleTopRectF = RectF()
 
-    private var particlesAnimatingState = ParticlesAnimatingState.NONE
-    private var spreadingAnimatingCoefficient = 0f
+    private var snowflakeRotation = 0f
 
-    private val spreadingAnimator = ValueAnimator()
+    private val particles = ParticleSystem(MAX_PARTICLES)
+    private val particlePaint = Paint(Paint.ANTI_ALIAS_FLAG)
+    private var lastParticlesUpdateTime = 0L
+    private var particlesPaused = false
 
-    private val snowflakeDrawable: Drawable = BitmapDrawable(
-        resources,
-        BitmapFactory.decodeResource(resources, R.drawable.snowflake)
-    )
+    private val snowflakePaint = Paint(Paint.FILTER_BITMAP_FLAG)
+    private val snowflakeRect = Rect()
+    private var snowflakeBitmap: Bitmap? = null
 
     init {
-        snowflakeDrawable.colorFilter = PorterDuffColorFilter(Color.WHITE, PorterDuff.Mode.SRC_ATOP)
+        snowflakePaint.colorFilter = PorterDuffColorFilter(Color.WHITE, PorterDuff.Mode.SRC_ATOP)
         mainCirclePaint.color = mainCircleColor
         mainCircleTopPaint.color = mainCircleTopColor
-        spreadingAnimator.addUpdateListener { animation ->
-            spreadingAnimatingCoefficient = animation.animatedValue as Float
-            invalidate()
-        }
+        particlePaint.color = Color.WHITE
+        particlePaint.strokeCap = Paint.Cap.ROUND
+        particlePaint.strokeWidth = PARTICLE_SIZE_DP * resources.displayMetrics.density
     }
 
     override fun onStartAnimatingToIdlePosition() {
-        particlesAnimatingState = ParticlesAnimatingState.SPREADING
-        if (!spreadingAnimator.isRunning) {
-            spreadingAnimator.setFloatValues(spreadingAnimatingCoefficient, 1f)
-            spreadingAnimator.start()
-        }
+        // Particles left from a burst that was not drawn to the end are stale by now
+        particles.clear()
+        val maxSpeed = width * PARTICLE_MAX_SPEED_FACTOR
+        particles.emitBurst(
+            MAX_PARTICLES, width / 2f, height / 2f, maxSpeed / 4, maxSpeed, PARTICLE_LIFE_SECONDS
+        )
+        lastParticlesUpdateTime = SystemClock.uptimeMillis()
+        invalidate()
     }
 
     override fun onEndAnimatingToIdlePosition() {
-        particlesAnimatingState = ParticlesAnimatingState.NONE
-        invalidate()
-        if (spreadingAnimator.isRunning) {
-            spreadingAnimatingCoefficient = 0f
-            spreadingAnimator.cancel()
+        // Burst is not cut off here, it fades out on its own in onDraw
+    }
+
+    override fun onPauseAnimations() {
+        particlesPaused = true
+    }
+
+    override fun onResumeAnimations() {
+        particlesPaused = false
+        if (particles.particleCount > 0) {
+            // Burst continues from where it was paused instead of jumping forward
+            lastParticlesUpdateTime = SystemClock.uptimeMillis()
+            invalidate()
+        }
+    }
+
+    override fun onProgress(dragFraction: Float, state: Int) {
+        // Progress is pushed every frame, while the view is often drawn into a hardware layer,
+        // so it is redrawn only once the snowflake turns noticeably
+        val rotation = dragFraction * SNOWFLAKE_ROTATION_DEGREES
+        if (Math.abs(rotation - snowflakeRotation) >= MIN_VISIBLE_ROTATION_DEGREES) {
+            snowflakeRotation = rotation
+            invalidate()
         }
     }
 
@@ -66,7 +86,12 @@ class MySnowflakeView(context: Context) : BaseProgressView(context) {
             w / 2f + circleTopWidth, circleTopHeight / 2f
         )
         val offset = w / 6
-        snowflakeDrawable.setBounds(offset, offset, w - offset, h - offset)
+        snowflakeRect.set(offset, offset, w - offset, h - offset)
+        snowflakeBitmap = if (snowflakeRect.isEmpty) {
+            null
+        } else {
+            getCachedBitmap(R.drawable.snowflake, snowflakeRect.width(), snowflakeRect.height())
+        }
     }
 
     override fun onDraw(canvas: Canvas) {
@@ -74,17 +99,42 @@ class MySnowflakeView(context: Context) : BaseProgressView(context) {
         val y = height / 2f
         val radius = width / 2f
         canvas.drawCircle(x, y, radius, mainCirclePaint)
-        snowflakeDrawable.draw(canvas)
+        snowflakeBitmap?.let { bitmap ->
+            // Snowflake turns while the view is being pulled
+            canvas.save()
+            canvas.rotate(snowflakeRotation, x, y)
+            canvas.drawBitmap(bitmap, null, snowflakeRect, snowflakePaint)
+            canvas.restore()
+        }
         canvas.drawRoundRect(mainCircleTopRectF, 10f, 10f, mainCircleTopPaint)
-        if (particlesAnimatingState == ParticlesAnimatingState.SPREADING) {
+        if (particles.particleCount > 0) {
             drawParticles(canvas)
         }
     }
 
     private fun drawParticles(canvas: Canvas) {
+        if (particlesPaused) {
+            // Nobody sees the burst now, so it is drawn as is and isn't scheduled for next frame
+            particles.draw(canvas, particlePaint)
+            return
+        }
+        val time = SystemClock.uptimeMillis()
+        particles.update((time - lastParticlesUpdateTime) / 1000f)
+        lastParticlesUpdateTime = time
+        particles.draw(canvas, particlePaint)
+        if (particles.particleCount > 0) {
+            postInvalidateOnAnimation()
+        }
     }
 
-    enum class ParticlesAnimatingState {
-        NONE, SPREADING
+    private companion object {
+        const val MAX_PARTICLES = 200
+        const val SNOWFLAKE_ROTATION_DEGREES = 120f
+        const val MIN_VISIBLE_ROTATION_DEGREES = 0.5f
+        const val PARTICLE_SIZE_DP = 1.5f
+        const val PARTICLE_LIFE_SECONDS = 0.6f
+
+        // Maximum speed of particles in view widths per second
+        const val PARTICLE_MAX_SPEED_FACTOR = 0.8f
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.arsvechkarev.swipetorefresh;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Minimal harness that measures an operation in the current JVM. The operation is repeated in
+ * batches, first to let the JIT compile it and then to measure it, and the median time of one
+ * operation is reported, since it is less sensitive to GC pauses than the mean. Results are
+ * printed to the standard output and are meant to be compared between runs on the same machine.
+ */
+final class Benchmark {
+
+    private static final int WARMUP_BATCHES = 20;
+
+    private static final int MEASURED_BATCHES = 30;
+
+    // Keeps results of operations reachable, so that the JIT can't remove the operations
+    @SuppressWarnings("unused")
+    private static volatile float sSink;
+
+    interface Operation {
+
+        /**
+         * @param iteration Number of the call within the batch
+         * @return Any value that depends on the work done
+         */
+        float run(int iteration);
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * @param name      Name of the result
+     * @param batchSize Number of calls of the operation that are timed together
+     * @return Median time of one call in nanoseconds
+     */
+    static double measure(String name, int batchSize, Operation operation) {
+        float sink = 0;
+        for (int batch = 0; batch < WARMUP_BATCHES; batch++) {
+            for (int i = 0; i < batchSize; i++) {
+                sink += operation.run(i);
+            }
+        }
+        long[] batchTimes = new long[MEASURED_BATCHES];
+        for (int batch = 0; batch < MEASURED_BATCHES; batch++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                sink += operation.run(i);
+            }
+            batchTimes[batch] = System.nanoTime() - start;
+        }
+        sSink = sink;
+        Arrays.sort(batchTimes);
+        double nanosPerCall = (double) batchTimes[MEASURED_BATCHES / 2] / batchSize;
+        report(name, nanosPerCall);
+        return nanosPerCall;
+    }
+
+    /**
+     * Measures the operation once, for costs that are paid once per process, such as loading
+     * of a class.
+     *
+     * @return Time of the call in nanoseconds
+     */
+    static long measureOnce(String name, Operation operation) {
+        long start = System.nanoTime();
+        sSink = operation.run(0);
+        long nanos = System.nanoTime() - start;
+        report(name, nanos);
+        return nanos;
+    }
+
+    /**
+     * Measures memory allocated by the operation after the warmup. Allocations are counted per
+     * thread by the JVM, so this works only on JVMs that support it, such as HotSpot.
+     *
+     * @param calls Number of calls of the operation that are measured
+     * @return Bytes allocated by one call on average
+     */
+    static long measureAllocations(String name, int calls, Operation operation) {
+        float sink = 0;
+        for (int batch = 0; batch < WARMUP_BATCHES; batch++) {
+            for (int i = 0; i < calls; i++) {
+                sink += operation.run(i);
+            }
+        }
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // Reading the counter can allocate by itself
+        long overhead = -threadBean.getThreadAllocatedBytes(threadId)
+                + threadBean.getThreadAllocatedBytes(threadId);
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            sink += operation.run(i);
+        }
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+        sSink = sink;
+        long bytesPerCall = Math.max(0, bytes) / calls;
+        System.out.println(String.format(Locale.US, "%s: %d bytes", name, bytesPerCall));
+        return bytesPerCall;
+    }
+
+    private static void report(String name, double nanosPerCall) {
+        System.out.println(String.format(Locale.US, "%s: %.1f ns", name, nanosPerCall));
+    }
+}
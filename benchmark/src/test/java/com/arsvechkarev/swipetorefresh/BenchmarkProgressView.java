@@ -0,0 +1,21 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.content.Context;
+
+/**
+ * Progress view that doesn't draw anything, so that benchmarks measure only the layout.
+ */
+public class BenchmarkProgressView extends BaseProgressView {
+
+    public BenchmarkProgressView(Context context) {
+        super(context);
+    }
+
+    @Override
+    public void onStartAnimatingToIdlePosition() {
+    }
+
+    @Override
+    public void onEndAnimatingToIdlePosition() {
+    }
+}
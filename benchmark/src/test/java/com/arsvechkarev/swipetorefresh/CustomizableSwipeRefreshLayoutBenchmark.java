@@ -0,0 +1,197 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.app.Activity;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.core.view.ViewCompat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hot paths of {@link CustomizableSwipeRefreshLayout} with views shadowed by
+ * Robolectric. Shadows add their own cost, so the numbers are only comparable with each other
+ * and with previous runs of the same benchmark.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CustomizableSwipeRefreshLayoutBenchmark {
+
+    private static final long FRAME_MILLIS = 16;
+
+    // Upper bound of frames an animation can take, so that a broken animation fails the run
+    private static final int MAX_ANIMATION_FRAMES = 500;
+
+    // Number of distinct positions touch events go through while the progress view is dragged
+    private static final int DRAG_POSITIONS = 64;
+
+    private Activity mActivity;
+    private CustomizableSwipeRefreshLayout mLayout;
+    private View mTarget;
+    private int mRefreshCount;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.progressViewClass, BenchmarkProgressView.class.getName())
+                .build();
+        mLayout = new CustomizableSwipeRefreshLayout(mActivity, attrs);
+        mTarget = new View(mActivity);
+        mLayout.addView(mTarget);
+        mLayout.setOnRefreshListener(new CustomizableSwipeRefreshLayout.OnRefreshListener() {
+            @Override
+            public void onRefresh() {
+                mRefreshCount++;
+            }
+        });
+        FrameLayout parent = new FrameLayout(mActivity);
+        parent.addView(mLayout);
+        mActivity.setContentView(parent);
+        ShadowLooper.idleMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        mActivity.finish();
+    }
+
+    @Test
+    public void interceptMoveBelowTouchSlop() {
+        final MotionEvent[] moves = new MotionEvent[2];
+        moves[0] = obtain(MotionEvent.ACTION_MOVE, 1);
+        moves[1] = obtain(MotionEvent.ACTION_MOVE, 2);
+        mLayout.onInterceptTouchEvent(obtain(MotionEvent.ACTION_DOWN, 0));
+        Benchmark.measure("onInterceptTouchEvent move", 256, new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                return mLayout.onInterceptTouchEvent(moves[iteration % 2]) ? 1 : 0;
+            }
+        });
+    }
+
+    @Test
+    public void touchMoveWhileDragging() {
+        final MotionEvent[] moves = new MotionEvent[DRAG_POSITIONS];
+        for (int i = 0; i < DRAG_POSITIONS; i++) {
+            float y = (float) getDragDistance() * (i + 1) / DRAG_POSITIONS;
+            moves[i] = obtain(MotionEvent.ACTION_MOVE, y);
+        }
+        mLayout.dispatchTouchEvent(obtain(MotionEvent.ACTION_DOWN, 0));
+        mLayout.dispatchTouchEvent(moves[DRAG_POSITIONS - 1]);
+        Benchmark.measure("onTouchEvent move with moveSpinner", DRAG_POSITIONS,
+                new Benchmark.Operation() {
+                    @Override
+                    public float run(int iteration) {
+                        return mLayout.dispatchTouchEvent(moves[iteration]) ? 1 : 0;
+                    }
+                });
+    }
+
+    @Test
+    public void nestedScrollWhileDragging() {
+        final int[] consumed = new int[2];
+        final int step = getDragDistance() / DRAG_POSITIONS;
+        mLayout.onNestedScrollAccepted(mTarget, mTarget, ViewCompat.SCROLL_AXIS_VERTICAL);
+        mLayout.onNestedScroll(mTarget, 0, 0, 0, -getDragDistance() / 2);
+        Benchmark.measure("onNestedScroll and onNestedPreScroll", 256,
+                new Benchmark.Operation() {
+                    @Override
+                    public float run(int iteration) {
+                        if (iteration % 2 == 0) {
+                            mLayout.onNestedScroll(mTarget, 0, 0, 0, -step);
+                            return 0;
+                        } else {
+                            consumed[1] = 0;
+                            mLayout.onNestedPreScroll(mTarget, 0, step, consumed);
+                            return consumed[1];
+                        }
+                    }
+                });
+    }
+
+    @Test
+    public void refreshCycle() {
+        Benchmark.measure("pull, refresh and reset cycle", 1, createRefreshCycle());
+    }
+
+    /**
+     * Reports memory allocated by a refresh cycle once the layout is warmed up. Shadows and the
+     * main looper of Robolectric allocate by themselves, so the number is an upper bound of what
+     * the layout allocates.
+     */
+    @Test
+    public void refreshCycleAllocations() {
+        Benchmark.measureAllocations("pull, refresh and reset cycle allocations", 10,
+                createRefreshCycle());
+    }
+
+    private Benchmark.Operation createRefreshCycle() {
+        final MotionEvent down = obtain(MotionEvent.ACTION_DOWN, 0);
+        final MotionEvent move = obtain(MotionEvent.ACTION_MOVE, getDragDistance());
+        final MotionEvent up = obtain(MotionEvent.ACTION_UP, getDragDistance());
+        final View progressView = findProgressView();
+        return new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                int refreshCount = mRefreshCount;
+                mLayout.dispatchTouchEvent(down);
+                mLayout.dispatchTouchEvent(move);
+                mLayout.dispatchTouchEvent(up);
+                int frames = runFramesUntilRefreshed(refreshCount);
+                mLayout.setRefreshing(false);
+                return frames + runFramesUntilHidden(progressView);
+            }
+        };
+    }
+
+    private int runFramesUntilRefreshed(int refreshCount) {
+        int frames = 0;
+        while (mRefreshCount == refreshCount) {
+            runFrame(++frames);
+        }
+        return frames;
+    }
+
+    private int runFramesUntilHidden(View progressView) {
+        int frames = 0;
+        while (progressView.getVisibility() == View.VISIBLE) {
+            runFrame(++frames);
+        }
+        return frames;
+    }
+
+    private static void runFrame(int frame) {
+        if (frame > MAX_ANIMATION_FRAMES) {
+            throw new AssertionError("Animation did not finish");
+        }
+        ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Distance of a touch gesture that pulls the progress view far past the refresh threshold
+    private int getDragDistance() {
+        return mLayout.getHeight() / 2;
+    }
+
+    private View findProgressView() {
+        for (int i = 0; i < mLayout.getChildCount(); i++) {
+            if (mLayout.getChildAt(i) instanceof BaseProgressView) {
+                return mLayout.getChildAt(i);
+            }
+        }
+        throw new AssertionError("Progress view is not added");
+    }
+
+    private static MotionEvent obtain(int action, float y) {
+        return MotionEvent.obtain(0, 0, action, 0, y, 0);
+    }
+}
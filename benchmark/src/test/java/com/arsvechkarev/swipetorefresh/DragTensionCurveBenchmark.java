@@ -0,0 +1,65 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+/**
+ * Compares the lookup table that moveSpinner uses with computing the curve on every frame.
+ */
+public class DragTensionCurveBenchmark {
+
+    private static final float TOTAL_DRAG_DISTANCE = 168f;
+
+    private static final float SLINGSHOT_DISTANCE = 168f;
+
+    // Number of distinct drag distances the operations go through, up to the end of the curve
+    private static final int DRAG_STEPS = 1024;
+
+    private static final float DRAG_STEP =
+            (TOTAL_DRAG_DISTANCE + SLINGSHOT_DISTANCE * 2) / DRAG_STEPS;
+
+    @Test
+    public void lookupTable() {
+        final LookupTableDragTensionCurve curve = new LookupTableDragTensionCurve();
+        curve.setDragParameters(TOTAL_DRAG_DISTANCE, SLINGSHOT_DISTANCE);
+        Benchmark.measure("DragTensionCurve lookup table", DRAG_STEPS, new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                return curve.getSpinnerOffset(iteration * DRAG_STEP);
+            }
+        });
+    }
+
+    @Test
+    public void formula() {
+        Benchmark.measure("DragTensionCurve formula", DRAG_STEPS, new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                return computeOffset(iteration * DRAG_STEP);
+            }
+        });
+    }
+
+    @Test
+    public void tableRebuild() {
+        final LookupTableDragTensionCurve curve = new LookupTableDragTensionCurve();
+        Benchmark.measure("DragTensionCurve table rebuild", 16, new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                curve.setDragParameters(TOTAL_DRAG_DISTANCE + iteration, SLINGSHOT_DISTANCE);
+                return curve.getSpinnerOffset(TOTAL_DRAG_DISTANCE);
+            }
+        });
+    }
+
+    // Curve as moveSpinner computed it before the lookup table
+    private static float computeOffset(float overscrollTop) {
+        float dragPercent = Math.min(1f, Math.abs(overscrollTop / TOTAL_DRAG_DISTANCE));
+        float extraOS = Math.abs(overscrollTop) - TOTAL_DRAG_DISTANCE;
+        float tensionSlingshotPercent = Math.max(0, Math.min(extraOS, SLINGSHOT_DISTANCE * 2)
+                / SLINGSHOT_DISTANCE);
+        float tensionPercent = (float) ((tensionSlingshotPercent / 4) - Math.pow(
+                (tensionSlingshotPercent / 4), 2)) * 2f;
+        float extraMove = SLINGSHOT_DISTANCE * tensionPercent * 2;
+        return SLINGSHOT_DISTANCE * dragPercent + extraMove;
+    }
+}
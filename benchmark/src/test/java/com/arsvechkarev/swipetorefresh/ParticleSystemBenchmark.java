@@ -0,0 +1,32 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+/**
+ * Measures a frame of {@link ParticleSystem#update(float)} for different numbers of particles.
+ * Drawing is not measured, since canvas of the JVM doesn't draw anything.
+ */
+public class ParticleSystemBenchmark {
+
+    private static final float FRAME_SECONDS = 1 / 60f;
+
+    // Long enough for particles to stay alive during the whole measurement
+    private static final float LIFE_SECONDS = 1_000_000f;
+
+    @Test
+    public void update() {
+        for (int count : new int[]{100, 1_000, 10_000}) {
+            final ParticleSystem particles = new ParticleSystem(count);
+            particles.setGravity(0f, 500f);
+            particles.emitBurst(count, 0f, 0f, 100f, 1000f, LIFE_SECONDS);
+            Benchmark.measure("ParticleSystem update of " + count + " particles", 16,
+                    new Benchmark.Operation() {
+                        @Override
+                        public float run(int iteration) {
+                            particles.update(FRAME_SECONDS);
+                            return particles.getParticleCount();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Compares creation of a layout when its progress view class is resolved for the first time,
+ * when the resolved constructor is cached, and when a factory creates the progress view.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProgressViewCreationBenchmark {
+
+    @After
+    public void tearDown() {
+        CustomizableSwipeRefreshLayout.setDefaultProgressViewFactory(null);
+    }
+
+    @Test
+    public void coldReflection() {
+        final Context context = RuntimeEnvironment.getApplication();
+        // The class is not used anywhere else, so it is loaded and resolved right here
+        final AttributeSet attrs = createAttributes(ColdProgressView.class);
+        Benchmark.measureOnce("layout creation, progress view class resolved for the first time",
+                new Benchmark.Operation() {
+                    @Override
+                    public float run(int iteration) {
+                        return new CustomizableSwipeRefreshLayout(context, attrs).getChildCount();
+                    }
+                });
+    }
+
+    @Test
+    public void cachedReflection() {
+        measureCreation("layout creation, cached progress view constructor");
+    }
+
+    @Test
+    public void factory() {
+        CustomizableSwipeRefreshLayout.setDefaultProgressViewFactory(
+                new CustomizableSwipeRefreshLayout.ProgressViewFactory() {
+                    @Nullable
+                    @Override
+                    public BaseProgressView createProgressView(@NonNull Context context,
+                                                               @NonNull String className) {
+                        return new BenchmarkProgressView(context);
+                    }
+                });
+        measureCreation("layout creation, progress view created by a factory");
+    }
+
+    private static void measureCreation(String name) {
+        final Context context = RuntimeEnvironment.getApplication();
+        final AttributeSet attrs = createAttributes(BenchmarkProgressView.class);
+        Benchmark.measure(name, 16, new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                return new CustomizableSwipeRefreshLayout(context, attrs).getChildCount();
+            }
+        });
+    }
+
+    private static AttributeSet createAttributes(Class<? extends BaseProgressView> viewClass) {
+        return Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.progressViewClass, viewClass.getName())
+                .build();
+    }
+
+    public static class ColdProgressView extends BenchmarkProgressView {
+
+        public ColdProgressView(Context context) {
+            super(context);
+        }
+    }
+}
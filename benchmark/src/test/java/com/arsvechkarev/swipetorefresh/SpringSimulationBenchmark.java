@@ -0,0 +1,43 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+/**
+ * Measures one frame of the springs that settle the progress view after release.
+ */
+public class SpringSimulationBenchmark {
+
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    // Frames after which the spring is restarted, before it comes to rest
+    private static final int FRAMES_PER_START = 8;
+
+    @Test
+    public void criticallyDampedFrame() {
+        measureFrame("SpringSimulation critically damped frame", 1f);
+    }
+
+    @Test
+    public void underdampedFrame() {
+        measureFrame("SpringSimulation underdamped frame", 0.5f);
+    }
+
+    @Test
+    public void overdampedFrame() {
+        measureFrame("SpringSimulation overdamped frame", 2f);
+    }
+
+    private static void measureFrame(String name, float dampingRatio) {
+        final SpringSimulation spring = new SpringSimulation(1500f, dampingRatio);
+        Benchmark.measure(name, 1024, new Benchmark.Operation() {
+            @Override
+            public float run(int iteration) {
+                if (iteration % FRAMES_PER_START == 0) {
+                    spring.start(0f, 3000f, 300f);
+                }
+                spring.update(FRAME_NANOS);
+                return spring.getValue();
+            }
+        });
+    }
+}
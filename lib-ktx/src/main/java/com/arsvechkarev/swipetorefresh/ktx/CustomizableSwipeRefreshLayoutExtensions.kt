@@ -0,0 +1,56 @@
+package com.arsvechkarev.swipetorefresh.ktx
+
+import com.arsvechkarev.swipetorefresh.CustomizableSwipeRefreshLayout
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+
+/**
+ * Sets suspending [block] that is launched in [scope] on the main thread when the swipe gesture
+ * triggers a refresh. Progress view is hidden automatically when the block completes, so there is
+ * no need to call [CustomizableSwipeRefreshLayout.setRefreshing] after that. Refreshes that are
+ * triggered while the block is running are ignored, and the block is cancelled when the layout is
+ * detached from window. This replaces the listener set by
+ * [CustomizableSwipeRefreshLayout.setOnRefreshListener]
+ *
+ * @see clearOnRefresh
+ */
+fun CustomizableSwipeRefreshLayout.setOnRefresh(scope: CoroutineScope, block: suspend () -> Unit) {
+    clearOnRefresh()
+    val listener = SuspendingRefreshListener(this, scope, block)
+    setTag(R.id.suspending_refresh_listener, listener)
+    addOnAttachStateChangeListener(listener)
+    setOnRefreshListener(listener)
+}
+
+/**
+ * Removes the block set by [setOnRefresh] and cancels it if it is running
+ */
+fun CustomizableSwipeRefreshLayout.clearOnRefresh() {
+    val listener = getTag(R.id.suspending_refresh_listener) as? SuspendingRefreshListener ?: return
+    setTag(R.id.suspending_refresh_listener, null)
+    removeOnAttachStateChangeListener(listener)
+    listener.cancel()
+    setOnRefreshListener(null)
+}
+
+/**
+ * Returns cold flow that emits every time the swipe gesture triggers a refresh. Listener is set
+ * when collection starts and removed when it stops, so the flow should be collected on the main
+ * thread, and only one collector is supported at a time. Refreshes that are triggered while the
+ * collector is busy are conflated. Collector is responsible for hiding the progress view with
+ * [CustomizableSwipeRefreshLayout.setRefreshing]
+ */
+fun CustomizableSwipeRefreshLayout.refreshes(): Flow<Unit> = flow {
+    val refreshes = Channel<Unit>(Channel.CONFLATED)
+    clearOnRefresh()
+    setOnRefreshListener { refreshes.trySend(Unit) }
+    try {
+        for (refresh in refreshes) {
+            emit(refresh)
+        }
+    } finally {
+        setOnRefreshListener(null)
+    }
+}
@@ -0,0 +1,59 @@
+package com.arsvechkarev.swipetorefresh.ktx
+
+import android.view.View
+import com.arsvechkarev.swipetorefresh.CustomizableSwipeRefreshLayout
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.launch
+
+/**
+ * Listener that runs suspending refresh [block] in [scope] and hides the progress view of
+ * [layout] once the block completes. Block is cancelled when [layout] is detached from window.
+ *
+ * @see setOnRefresh
+ */
+internal class SuspendingRefreshListener(
+    private val layout: CustomizableSwipeRefreshLayout,
+    private val scope: CoroutineScope,
+    private val block: suspend () -> Unit
+) : CustomizableSwipeRefreshLayout.OnRefreshListener, View.OnAttachStateChangeListener {
+
+    private var job: Job? = null
+
+    override fun onRefresh() {
+        if (job != null) {
+            // Refresh is already in flight, there is no need to start it again
+            return
+        }
+        // Job is started lazily, so that it is already assigned when block completes without
+        // suspension
+        val newJob = scope.launch(Dispatchers.Main.immediate, CoroutineStart.LAZY) {
+            try {
+                block()
+            } finally {
+                if (job === coroutineContext[Job]) {
+                    job = null
+                    layout.isRefreshing = false
+                }
+            }
+        }
+        job = newJob
+        newJob.start()
+    }
+
+    override fun onViewAttachedToWindow(v: View) {
+    }
+
+    override fun onViewDetachedFromWindow(v: View) {
+        cancel()
+    }
+
+    fun cancel() {
+        val job = job ?: return
+        this.job = null
+        job.cancel()
+        layout.isRefreshing = false
+    }
+}
@@ -1,8 +1,14 @@
 package com.arsvechkarev.swipetorefresh
 
 import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.drawable.AnimatedVectorDrawable
+import android.graphics.drawable.Drawable
 import android.view.View
 import android.view.animation.Animation
+import androidx.annotation.DrawableRes
+import androidx.annotation.Px
 
 /**
  * This is a base implementation for a progress view that will be used in
@@ -11,7 +17,7 @@ import android.view.animation.Animation
  * [onEndAnimatingToIdlePosition] and so on), and then you should provide
  * [CustomizableSwipeRefreshLayout] with your implementation's full class name. Also, your subclass
  * should have a constructor that accepts [Context], this constructor will be called through
- * reflection.
+ * reflection, unless you register a [CustomizableSwipeRefreshLayout.ProgressViewFactory].
  *
  * @see CustomizableSwipeRefreshLayout
  */
@@ -19,6 +25,92 @@ abstract class BaseProgressView(context: Context) : View(context) {
 
     private var listener: Animation.AnimationListener? = null
 
+    /**
+     * Drawable that is drawn on top of the view and animated while the progress view is spinning.
+     * If it is set, [CustomizableSwipeRefreshLayout] starts it instead of rotating the view on the
+     * main thread. Starting from API 25 animations of [AnimatedVectorDrawable] run on RenderThread
+     * if the view is hardware accelerated, so the spinner keeps animating even when the main
+     * thread is busy, e.g. with parsing results of the refresh. On older versions the drawable is
+     * animated on the main thread. Animators of the drawable should repeat infinitely
+     */
+    var spinnerDrawable: AnimatedVectorDrawable? = null
+        set(value) {
+            if (field === value) {
+                return
+            }
+            field?.let { drawable ->
+                drawable.stop()
+                drawable.callback = null
+            }
+            field = value
+            value?.callback = this
+            invalidate()
+        }
+
+    private var frameCache: FrameCache? = null
+
+    /**
+     * Enables or disables cache of pre-rendered frames of [onDrawFrame]. When the cache is
+     * enabled, [drawFrame] renders each of [frameCount] frames into a bitmap atlas only once and
+     * then draws the frame that is nearest to the requested progress. This is useful when
+     * drawing is expensive (e.g. complex paths) but depends only on progress. Atlas is sized to
+     * the view, which [CustomizableSwipeRefreshLayout] sets to
+     * [CustomizableSwipeRefreshLayout.getProgressCircleDiameter], and it takes at most 4 MB, so
+     * fewer frames are cached for large views
+     *
+     * @see invalidateFrameCache
+     */
+    fun setFrameCacheEnabled(enabled: Boolean, frameCount: Int) {
+        require(frameCount > 0) { "Frame count should be positive" }
+        frameCache?.release()
+        frameCache = if (enabled) {
+            FrameCache(frameCount) { canvas, progress -> onDrawFrame(canvas, progress) }
+        } else {
+            null
+        }
+        invalidate()
+    }
+
+    /**
+     * Drops pre-rendered frames, so that they are rendered again with [onDrawFrame]. Call this
+     * when something that affects drawing other than progress has changed, e.g. colors
+     */
+    fun invalidateFrameCache() {
+        frameCache?.release()
+        invalidate()
+    }
+
+    /**
+     * Draws the frame of [onDrawFrame] for the given [progress] from 0 to 1, using pre-rendered
+     * frames if [the cache][setFrameCacheEnabled] is enabled. Call this from **onDraw()**
+     */
+    protected fun drawFrame(canvas: Canvas, progress: Float) {
+        val cache = frameCache
+        if (cache != null) {
+            cache.draw(canvas, width, height, progress)
+        } else {
+            onDrawFrame(canvas, progress)
+        }
+    }
+
+    /**
+     * Method that draws content of the view that depends only on [progress] from 0 to 1 and can
+     * be cached. It is called by [drawFrame], possibly with canvas of the frame cache
+     *
+     * @see setFrameCacheEnabled
+     */
+    protected open fun onDrawFrame(canvas: Canvas, progress: Float) {
+    }
+
+    /**
+     * Sets listener of [Animation]s that are run on this view. [CustomizableSwipeRefreshLayout]
+     * doesn't animate progress view with [Animation]s anymore, so the listener is notified only
+     * about animations started with **startAnimation()** by yourself
+     */
+    @Deprecated(
+        "CustomizableSwipeRefreshLayout doesn't run Animations on the progress view anymore, " +
+                "use onStartAnimatingToIdlePosition, onEndAnimatingToIdlePosition or onProgress"
+    )
     fun setAnimationListener(listener: Animation.AnimationListener) {
         this.listener = listener
     }
@@ -48,4 +140,82 @@ abstract class BaseProgressView(context: Context) : View(context) {
      * @see onStartAnimatingToIdlePosition
      */
     abstract fun onEndAnimatingToIdlePosition()
+
+    /**
+     * Method that is called once per frame while the progress view is moved by the drag or by
+     * the animation after release. Values are passed as primitives, so drawing can be driven by
+     * them without allocations
+     *
+     * @param dragFraction Position of the view as the fraction of the distance to the refresh
+     * threshold, 1 means the threshold, values greater than 1 mean that the view is dragged past it
+     * @param state One of [STATE_DRAGGING], [STATE_SETTLING_TO_REFRESH] or
+     * [STATE_SETTLING_TO_START]
+     */
+    open fun onProgress(dragFraction: Float, state: Int) {
+    }
+
+    /**
+     * Method that is called when [CustomizableSwipeRefreshLayout] becomes invisible to the user,
+     * e.g. its window is hidden or it is detached. Subclasses that run their own animators should
+     * pause them here
+     *
+     * @see onResumeAnimations
+     */
+    open fun onPauseAnimations() {
+    }
+
+    /**
+     * Method that is called when [CustomizableSwipeRefreshLayout] becomes visible to the user
+     * again after [onPauseAnimations]
+     *
+     * @see onPauseAnimations
+     */
+    open fun onResumeAnimations() {
+    }
+
+    /**
+     * Returns bitmap of [resId] that fits into [width] x [height], decoding it right at this size
+     * only if it is not in the process-wide [ProgressBitmapCache] yet. Usually the size should be
+     * derived from the size of the view, which is
+     * [CustomizableSwipeRefreshLayout.getProgressCircleDiameter]. Returned bitmap is shared
+     * between all progress views, so it should never be modified or recycled
+     */
+    protected fun getCachedBitmap(@DrawableRes resId: Int, @Px width: Int, @Px height: Int): Bitmap {
+        return ProgressBitmapCache.getBitmap(resources, resId, width, height)
+    }
+
+    override fun onDetachedFromWindow() {
+        super.onDetachedFromWindow()
+        frameCache?.release()
+    }
+
+    override fun verifyDrawable(who: Drawable): Boolean {
+        return who === spinnerDrawable || super.verifyDrawable(who)
+    }
+
+    override fun dispatchDraw(canvas: Canvas) {
+        super.dispatchDraw(canvas)
+        spinnerDrawable?.let { drawable ->
+            drawable.setBounds(0, 0, width, height)
+            drawable.draw(canvas)
+        }
+    }
+
+    companion object {
+
+        /**
+         * State of the progress view that is being dragged by the user or pulled out by a fling
+         */
+        const val STATE_DRAGGING = 0
+
+        /**
+         * State of the progress view that is moving to its refreshing position after release
+         */
+        const val STATE_SETTLING_TO_REFRESH = 1
+
+        /**
+         * State of the progress view that is returning to its start position after release
+         */
+        const val STATE_SETTLING_TO_START = 2
+    }
 }
\ No newline at end of file
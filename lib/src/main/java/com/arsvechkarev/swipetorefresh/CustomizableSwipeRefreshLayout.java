@@ -1,24 +1,26 @@
 package com.arsvechkarev.swipetorefresh;
 
-import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.drawable.AnimatedVectorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.Display;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewParent;
-import android.view.animation.Animation;
-import android.view.animation.Animation.AnimationListener;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.LinearInterpolator;
-import android.view.animation.Transformation;
+import android.view.ViewTreeObserver;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.widget.AbsListView;
 import android.widget.ListView;
 
@@ -41,6 +43,8 @@ import androidx.core.widget.ListViewCompat;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CustomizableSwipeRefreshLayout works almost exactly like normal SwipeRefreshLayout, except it
@@ -63,6 +67,10 @@ import java.lang.reflect.InvocationTargetException;
  *
  * &lt;/com.arsvechkarev.swipetorefresh.CustomizableSwipeRefreshLayout&gt;
  * </pre>
+ * <p>
+ * If the layout is rarely pulled, add {@code app:lazyProgressView="true"} to create the progress
+ * view only when it is needed for the first time, that is on the first swipe gesture or the first
+ * {@code setRefreshing(true)} call.
  *
  * @see BaseProgressView
  */
@@ -72,6 +80,32 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
 
     public static final int DEFAULT_SLINGSHOT_DISTANCE = -1;
 
+    /**
+     * {@link OnRefreshListener#onRefresh()} is called when the progress view reaches its refreshing
+     * position after release. This is the default.
+     *
+     * @see #setRefreshDispatchMode(int)
+     */
+    public static final int REFRESH_DISPATCH_AFTER_ANIMATION = 0;
+
+    /**
+     * {@link OnRefreshListener#onRefresh()} is called right at release, while the progress view
+     * is still moving to its refreshing position.
+     *
+     * @see #setRefreshDispatchMode(int)
+     */
+    public static final int REFRESH_DISPATCH_ON_RELEASE = 1;
+
+    /**
+     * {@link OnRefreshListener#onRefresh()} is called as soon as the progress view is dragged past
+     * the threshold. The refresh can not be cancelled by dragging back after that, it will be
+     * shown when the progress view is released, unless {@link #setRefreshing(boolean)} stops
+     * it before the release.
+     *
+     * @see #setRefreshDispatchMode(int)
+     */
+    public static final int REFRESH_DISPATCH_ON_THRESHOLD = 2;
+
     static final int CIRCLE_DIAMETER = 30;
 
     static final int CIRCLE_DIAMETER_LARGE = 56;
@@ -80,21 +114,64 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
 
     private static final int MAX_ALPHA = 255;
 
-    private static final float DECELERATE_INTERPOLATION_FACTOR = 2f;
     private static final int INVALID_POINTER = -1;
     private static final float DRAG_RATE = .5f;
 
     private static final int SCALE_DOWN_DURATION = 150;
 
-    private static final int ANIMATE_TO_TRIGGER_DURATION = 200;
+    // Default stiffness and damping ratio of the spring that settles the progress view after
+    // release, same as SpringForce.STIFFNESS_MEDIUM and SpringForce.DAMPING_RATIO_NO_BOUNCY
+    private static final float DEFAULT_SETTLE_STIFFNESS = 1500f;
+    private static final float DEFAULT_SETTLE_DAMPING_RATIO = 1f;
+
+    private static final int ROTATION_DURATION = 1500;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
-    private static final int ANIMATE_TO_START_DURATION = 200;
+    // Animations of the progress view that can be run by mAnimationFrameCallback
+    private static final int ANIMATION_NONE = 0;
+    private static final int ANIMATION_SCALE_UP = 1;
+    private static final int ANIMATION_SCALE_DOWN = 2;
+    private static final int ANIMATION_SCALE_DOWN_TO_START = 3;
+    private static final int ANIMATION_TO_CORRECT_POSITION = 4;
+    private static final int ANIMATION_TO_START = 5;
+    private static final int ANIMATION_FLING_ABSORB = 6;
+
+    // Stiffness and damping ratio of the spring that pulls the progress view out when a fling of
+    // the target reaches its top
+    private static final float FLING_ABSORB_STIFFNESS = 50f;
+    private static final float FLING_ABSORB_DAMPING_RATIO = 1f;
+
+    // Deceleration in dips per second squared of the released refresh indicator that is used to
+    // project where it would stop with predictive refresh trigger
+    private static final float PREDICTIVE_TRIGGER_DECELERATION = 4000f;
+
+    // Triggers refresh only if the refresh indicator was released past the threshold
+    private static final RefreshTriggerPolicy DISTANCE_TRIGGER_POLICY = new RefreshTriggerPolicy() {
+        @Override
+        public boolean shouldTriggerRefresh(float overscrollTop, float velocity,
+                                            float totalDragDistance) {
+            return overscrollTop > totalDragDistance;
+        }
+    };
 
     // Default offset in dips from the top of the view to where the progress spinner should stop
     private static final int DEFAULT_CIRCLE_TARGET = 64;
 
     private View mTarget; // the target of the gesture
     OnRefreshListener mListener;
+    @Nullable
+    private OnRefreshPendingListener mRefreshPendingListener;
+    // Fraction of mTotalDragDistance after which mRefreshPendingListener is notified
+    private float mRefreshPendingFraction;
+    private boolean mRefreshPendingNotified;
+    private int mRefreshDispatchMode = REFRESH_DISPATCH_AFTER_ANIMATION;
+    // Whether onRefresh was already called for the current refresh
+    private boolean mRefreshDispatched;
+    // Whether refreshing was stopped after onRefresh was dispatched, but before the release
+    private boolean mRefreshStopRequested;
     boolean mRefreshing = false;
     private int mTouchSlop;
     private float mTotalDragDistance = -1;
@@ -126,14 +203,36 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
     // Target is returning to its start offset because it was cancelled or a
     // refresh was triggered.
     private boolean mReturningToStart;
-    private final DecelerateInterpolator mDecelerateInterpolator;
     private static final int[] LAYOUT_ATTRS = new int[]{
             android.R.attr.enabled
     };
 
+    // Constructors of progress view classes that were already resolved through reflection, keyed
+    // by the value of progressViewClass attribute
+    private static final Map<String, Constructor<? extends BaseProgressView>> sConstructorCache =
+            new ConcurrentHashMap<>();
+
+    // Volatile, since it is also read by ProgressViewPrewarmer on background threads
+    @Nullable
+    private static volatile ProgressViewFactory sDefaultProgressViewFactory;
+
+    @Nullable
+    private ProgressViewFactory mProgressViewFactory;
+
+    private String mProgressViewClassName;
+
+    // Null until the progress view is needed if it is created lazily
+    @Nullable
     BaseProgressView mProgressView;
+
+    // Background color of the progress view that is applied once it is created
+    private int mProgressBackgroundColor;
+    private boolean mHasProgressBackgroundColor;
     private int mCircleViewIndex = -1;
 
+    // Whether mTarget and mCircleViewIndex have to be resolved again because children changed
+    private boolean mChildrenChanged;
+
     protected int mFrom;
 
     float mStartingScale;
@@ -144,11 +243,45 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
 
     int mCustomSlingshotDistance;
 
-    private Animation mScaleAnimation;
+    private DragTensionCurve mDragTensionCurve = new LookupTableDragTensionCurve();
+
+    @Nullable
+    private RefreshMetricsListener mRefreshMetricsListener;
+
+    private final RefreshMetrics mRefreshMetrics = new RefreshMetrics();
 
-    private Animation mScaleDownAnimation;
+    // Whether current gesture is being measured for mRefreshMetricsListener
+    private boolean mMeasuringGesture;
 
-    private Animation mScaleDownToStartAnimation;
+    private boolean mMeasuringDragFrames;
+
+    private boolean mGestureReleased;
+
+    private boolean mGestureRefreshStopped;
+
+    private long mFrameIntervalNanos;
+
+    private long mLastDragFrameTimeNanos;
+
+    private long mGestureReleaseTimeNanos;
+
+    private long mGestureRefreshStopTimeNanos;
+
+    private final Choreographer.FrameCallback mDragFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    if (!mMeasuringDragFrames) {
+                        return;
+                    }
+                    if (mLastDragFrameTimeNanos != 0) {
+                        mRefreshMetrics.recordFrame(frameTimeNanos - mLastDragFrameTimeNanos,
+                                mFrameIntervalNanos);
+                    }
+                    mLastDragFrameTimeNanos = frameTimeNanos;
+                    Choreographer.getInstance().postFrameCallback(this);
+                }
+            };
 
     boolean mNotify;
 
@@ -164,42 +297,142 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
      */
     private boolean mEnableLegacyRequestDisallowInterceptTouch;
 
-    private AnimationListener mRefreshListener = new AnimationListener() {
-        @Override
-        public void onAnimationStart(Animation animation) {
-        }
+    /**
+     * @see #setTranslationPositioningEnabled
+     */
+    private boolean mTranslationPositioning;
 
-        @Override
-        public void onAnimationRepeat(Animation animation) {
-        }
+    /**
+     * @see #setChildScrollUpCachingEnabled
+     */
+    private boolean mChildScrollUpCachingEnabled;
 
-        @Override
-        public void onAnimationEnd(Animation animation) {
-            if (mRefreshing) {
-                // Make sure the progress view is fully visible
-                if (mNotify && mListener != null) {
-                    mListener.onRefresh();
+    private boolean mChildScrollUpCacheValid;
+
+    private boolean mCachedChildScrollUp;
+
+    // Invalidates cached canChildScrollUp() result whenever any view in the window scrolls
+    private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener =
+            new ViewTreeObserver.OnScrollChangedListener() {
+                @Override
+                public void onScrollChanged() {
+                    mChildScrollUpCacheValid = false;
                 }
-                mCurrentTargetOffsetTop = mProgressView.getTop();
-            } else {
-                reset();
+            };
+
+    private final Interpolator mScaleInterpolator = new AccelerateDecelerateInterpolator();
+
+    // The only frame callback that drives offset, scale and rotation of the progress view, so
+    // that there is one frame tick per refresh state no matter how many properties are animated
+    private final Choreographer.FrameCallback mAnimationFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mAnimationFrameScheduled = false;
+                    onAnimationFrame(frameTimeNanos);
+                }
+            };
+
+    private boolean mAnimationFrameScheduled;
+
+    private int mCurrentAnimation = ANIMATION_NONE;
+
+    private int mCurrentAnimationDuration;
+
+    // Frame time of the first frame of current animation, or -1 if there was no frame yet
+    private long mAnimationStartTimeNanos;
+
+    // Whether the progress view is spinning while it is refreshing
+    private boolean mSpinning;
+
+    private float mSpinStartRotation;
+
+    private long mSpinStartTimeNanos;
+
+    // Whether animations are paused because this view is not visible to the user
+    private boolean mAnimationsPaused;
+
+    private long mLastAnimationFrameTimeNanos;
+
+    /**
+     * @see #setFlingToRefreshEnabled
+     */
+    private boolean mFlingToRefreshEnabled;
+
+    // Whether the current non-touch nested scroll was already absorbed by the progress view
+    private boolean mFlingAbsorbed;
+
+    private final SpringSimulation mFlingAbsorbSpring = new SpringSimulation(
+            FLING_ABSORB_STIFFNESS, FLING_ABSORB_DAMPING_RATIO);
+
+    // Moves the progress view to its refreshing or start position after release
+    private final SpringSimulation mSettleSpring = new SpringSimulation(
+            DEFAULT_SETTLE_STIFFNESS, DEFAULT_SETTLE_DAMPING_RATIO);
+
+    @Nullable
+    private VelocityTracker mVelocityTracker;
+
+    // Velocity of the progress view in pixels per second at the moment of release
+    private float mReleaseVelocityY;
+
+    private RefreshTriggerPolicy mRefreshTriggerPolicy = DISTANCE_TRIGGER_POLICY;
+
+    private boolean mProgressViewLayerEnabled = true;
+
+    // Whether the progress view was promoted to a hardware layer by this layout
+    private boolean mProgressViewLayerActive;
+
+    // Delay before the progress view is shown after setRefreshing(true)
+    private int mRefreshShowDelay;
+
+    // Minimum time the progress view stays visible before setRefreshing(false) hides it
+    private int mRefreshMinShowTime;
+
+    // Uptime in milliseconds at which the refresh was last shown
+    private long mRefreshShownTimeMillis;
+
+    private boolean mRefreshShowPending;
+
+    private boolean mRefreshHidePending;
+
+    private final Runnable mDelayedRefreshShow = new Runnable() {
+        @Override
+        public void run() {
+            mRefreshShowPending = false;
+            // Refresh could have been already triggered by the gesture
+            if (!mRefreshing) {
+                showRefreshing();
             }
         }
     };
 
-    private ObjectAnimator rotateAnimator;
+    private final Runnable mDelayedRefreshHide = new Runnable() {
+        @Override
+        public void run() {
+            mRefreshHidePending = false;
+            hideRefreshing();
+        }
+    };
 
     void reset() {
-        mProgressView.clearAnimation();
-        mProgressView.setVisibility(View.GONE);
-        setColorViewAlpha(MAX_ALPHA);
-        // Return the circle to its start position
-        if (mScale) {
-            setAnimationProgress(0 /* animation complete and view is hidden */);
+        cancelAnimations();
+        if (mProgressView != null) {
+            mProgressView.setVisibility(View.GONE);
+            setColorViewAlpha(MAX_ALPHA);
+            // Return the circle to its start position
+            if (mScale) {
+                setAnimationProgress(0 /* animation complete and view is hidden */);
+            } else {
+                setTargetOffsetTopAndBottom(mOriginalOffsetTop - mCurrentTargetOffsetTop);
+            }
+            mCurrentTargetOffsetTop = getProgressViewTop();
         } else {
-            setTargetOffsetTopAndBottom(mOriginalOffsetTop - mCurrentTargetOffsetTop);
+            mCurrentTargetOffsetTop = mOriginalOffsetTop;
+        }
+        clearRefreshDispatch();
+        if (mMeasuringGesture) {
+            finishGestureMeasurement();
         }
-        mCurrentTargetOffsetTop = mProgressView.getTop();
     }
 
     @Override
@@ -262,13 +495,51 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         setRefreshing(savedState.mRefreshing);
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+        updateAnimationsPaused();
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+        mChildScrollUpCacheValid = false;
+        flushPendingRefreshing();
         reset();
+        setAnimationsPaused(true);
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAnimationsPaused();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // This can be called from the constructor of View before fields are initialized, which
+        // is fine, since pausing only records the state until progress view is created
+        updateAnimationsPaused();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        setAnimationsPaused(!isVisible);
     }
 
     private void setColorViewAlpha(int targetAlpha) {
+        if (mProgressView == null) {
+            return;
+        }
         Drawable background = mProgressView.getBackground();
         if (background != null) {
             background.setAlpha(targetAlpha);
@@ -299,6 +570,7 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         mOriginalOffsetTop = start;
         mSpinnerOffsetEnd = end;
         mUsingCustomStart = true;
+        updateDragTensionCurve();
         reset();
         mRefreshing = false;
     }
@@ -335,7 +607,10 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
     public void setProgressViewEndTarget(boolean scale, int end) {
         mSpinnerOffsetEnd = end;
         mScale = scale;
-        mProgressView.invalidate();
+        updateDragTensionCurve();
+        if (mProgressView != null) {
+            mProgressView.invalidate();
+        }
     }
 
     /**
@@ -347,6 +622,45 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
      */
     public void setSlingshotDistance(@Px int slingshotDistance) {
         mCustomSlingshotDistance = slingshotDistance;
+        updateDragTensionCurve();
+    }
+
+    /**
+     * Sets a curve that determines how far the refresh indicator moves for the given drag
+     * distance. By default, the curve of the original SwipeRefreshLayout is used.
+     *
+     * @param curve Curve that should be used during a swipe gesture
+     */
+    public void setDragTensionCurve(@NonNull DragTensionCurve curve) {
+        mDragTensionCurve = curve;
+        updateDragTensionCurve();
+    }
+
+    private void updateDragTensionCurve() {
+        float slingshotDist = mCustomSlingshotDistance > 0
+                ? mCustomSlingshotDistance
+                : (mUsingCustomStart
+                ? mSpinnerOffsetEnd - mOriginalOffsetTop
+                : mSpinnerOffsetEnd);
+        mDragTensionCurve.setDragParameters(mTotalDragDistance, slingshotDist);
+    }
+
+    /**
+     * Sets whether the progress view should be moved by changing its translationY instead of
+     * offsetting its layout bounds. In this mode dragging only updates a render property of the
+     * progress view and never affects layout of this view or its target. The default is false.
+     *
+     * @param enabled Whether progress view should be positioned through translation
+     */
+    public void setTranslationPositioningEnabled(boolean enabled) {
+        if (mTranslationPositioning == enabled) {
+            return;
+        }
+        mTranslationPositioning = enabled;
+        if (mProgressView != null) {
+            mProgressView.setTranslationY(0f);
+        }
+        requestLayout();
     }
 
     /**
@@ -374,13 +688,21 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
                 android.R.integer.config_mediumAnimTime);
 
         setWillNotDraw(false);
-        mDecelerateInterpolator = new DecelerateInterpolator(DECELERATE_INTERPOLATION_FACTOR);
 
         final DisplayMetrics metrics = getResources().getDisplayMetrics();
         mCircleDiameter = (int) (CIRCLE_DIAMETER * metrics.density);
 
         final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.CustomizableSwipeRefreshLayout);
-        createProgressView(a.getString(R.styleable.CustomizableSwipeRefreshLayout_progressViewClass));
+        mProgressViewClassName = a.getString(
+                R.styleable.CustomizableSwipeRefreshLayout_progressViewClass);
+        if (mProgressViewClassName == null) {
+            throw new IllegalStateException("No class passed for progressView");
+        }
+        if (!a.getBoolean(R.styleable.CustomizableSwipeRefreshLayout_lazyProgressView, false)) {
+            ensureProgressView();
+        }
+        mTranslationPositioning = a.getBoolean(
+                R.styleable.CustomizableSwipeRefreshLayout_translationPositioning, false);
         setEnabled(a.getBoolean(0, true));
         a.recycle();
         setChildrenDrawingOrderEnabled(true);
@@ -393,19 +715,13 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         setNestedScrollingEnabled(true);
 
         mOriginalOffsetTop = mCurrentTargetOffsetTop = -mCircleDiameter;
+        updateDragTensionCurve();
         moveToStart(1.0f);
-
-        if (rotateAnimator != null) {
-            rotateAnimator.cancel();
-        }
-        rotateAnimator = ObjectAnimator.ofFloat(mProgressView, View.ROTATION, 360f);
-        rotateAnimator.setRepeatCount(ObjectAnimator.INFINITE);
-        rotateAnimator.setInterpolator(new LinearInterpolator());
-        rotateAnimator.setDuration(1500);
     }
 
     @Override
     protected int getChildDrawingOrder(int childCount, int i) {
+        resolveChildren();
         if (mCircleViewIndex < 0) {
             return i;
         } else if (i == childCount - 1) {
@@ -420,15 +736,86 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         }
     }
 
+    /**
+     * Creates the progress view if it was not created yet
+     *
+     * @return Progress view of this layout
+     */
+    private BaseProgressView ensureProgressView() {
+        if (mProgressView != null) {
+            return mProgressView;
+        }
+        BaseProgressView progressView = instantiateProgressView(getContext(),
+                mProgressViewClassName);
+        attachProgressView(progressView);
+        return progressView;
+    }
+
+    private void attachProgressView(BaseProgressView progressView) {
+        mProgressView = progressView;
+        progressView.setVisibility(View.GONE);
+        if (mHasProgressBackgroundColor) {
+            progressView.setBackgroundColor(mProgressBackgroundColor);
+        }
+        if (mAnimationsPaused) {
+            progressView.onPauseAnimations();
+        }
+        addView(progressView);
+        if (getWidth() > 0) {
+            // View is created in the middle of a gesture, it has to be positioned right away
+            // instead of waiting for the next layout pass
+            measureProgressView();
+            layoutProgressView();
+        }
+    }
+
+    private BaseProgressView instantiateProgressView(Context context, String className) {
+        if (mProgressViewFactory != null) {
+            return newProgressView(context, className, mProgressViewFactory);
+        }
+        BaseProgressView prewarmedView = ProgressViewPrewarmer.obtain(context, className);
+        if (prewarmedView != null) {
+            return prewarmedView;
+        }
+        return newProgressView(context, className, sDefaultProgressViewFactory);
+    }
+
+    /**
+     * Creates progress view the same way as layouts without their own factory do.
+     */
+    static BaseProgressView newDefaultProgressView(Context context, String className) {
+        return newProgressView(context, className, sDefaultProgressViewFactory);
+    }
+
+    private static BaseProgressView newProgressView(Context context, String className,
+                                                    @Nullable ProgressViewFactory factory) {
+        if (factory != null) {
+            BaseProgressView progressView = factory.createProgressView(context, className);
+            if (progressView != null) {
+                return progressView;
+            }
+        }
+        try {
+            return getProgressViewConstructor(className).newInstance(context);
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
-    private void createProgressView(String className) {
-        if (className == null) {
-            throw new IllegalStateException("No class passed for progressView");
+    private static Constructor<? extends BaseProgressView> getProgressViewConstructor(
+            String className) {
+        Constructor<? extends BaseProgressView> constructor = sConstructorCache.get(className);
+        if (constructor != null) {
+            return constructor;
         }
         try {
             Class<?> progressViewClass = Class.forName(className);
-            Constructor<?> constructor = progressViewClass.getConstructor(Context.class);
-            mProgressView = (BaseProgressView) (constructor.newInstance(getContext()));
+            if (!BaseProgressView.class.isAssignableFrom(progressViewClass)) {
+                throw new ClassCastException(className);
+            }
+            constructor = ((Class<? extends BaseProgressView>) progressViewClass)
+                    .getConstructor(Context.class);
         } catch (NoSuchMethodException e) {
             String message = "Cannot instantiate class " + className + ". It should have a " +
                     "public constructor that accepts android.content.Context";
@@ -437,11 +824,41 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
             String message = "Progress view " + className + " should extend both android.view.View " +
                     "and com.arsvechkarev.swipetorefresh.ProgressView";
             throw new IllegalStateException(message, e);
-        } catch (ClassNotFoundException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
+        } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
         }
-        mProgressView.setVisibility(View.GONE);
-        addView(mProgressView);
+        sConstructorCache.put(className, constructor);
+        return constructor;
+    }
+
+    /**
+     * Sets a factory that is used by every CustomizableSwipeRefreshLayout to create its progress
+     * view. If factory is null or it returns null for some class name, progress view is created
+     * through reflection.
+     *
+     * @param factory Factory that should be used for all layouts that don't have their own factory
+     * @see #setProgressViewFactory(ProgressViewFactory)
+     */
+    public static void setDefaultProgressViewFactory(@Nullable ProgressViewFactory factory) {
+        sDefaultProgressViewFactory = factory;
+    }
+
+    /**
+     * Sets a factory that is used to create progress view of this layout. This factory takes
+     * precedence over the one passed to {@link #setDefaultProgressViewFactory(ProgressViewFactory)}.
+     * Progress view is created only once, so the factory can be set only while it was not
+     * created yet, that is when the layout is inflated with {@code app:lazyProgressView="true"}
+     * and was neither pulled nor refreshing so far.
+     *
+     * @param factory Factory that should be used for this layout
+     * @throws IllegalStateException If progress view is already created
+     */
+    public void setProgressViewFactory(@Nullable ProgressViewFactory factory) {
+        if (mProgressView != null) {
+            throw new IllegalStateException("Progress view is already created, set the factory "
+                    + "before it is needed and enable lazyProgressView attribute");
+        }
+        mProgressViewFactory = factory;
     }
 
     /**
@@ -452,6 +869,39 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         mListener = listener;
     }
 
+    /**
+     * Set the listener to be notified when the progress view is dragged past the given fraction
+     * of {@link #setDistanceToTriggerSync(int) the threshold}, so that data loading can be
+     * started before the refresh is actually triggered. Listener is notified at most once per
+     * gesture, and the gesture can still be cancelled after that.
+     *
+     * @param listener     Listener to notify, or null to remove it
+     * @param dragFraction Fraction of the threshold from 0 to 1 that should be dragged
+     */
+    public void setOnRefreshPendingListener(@Nullable OnRefreshPendingListener listener,
+                                            float dragFraction) {
+        if (dragFraction < 0 || dragFraction > 1) {
+            throw new IllegalArgumentException("Drag fraction should be between 0 and 1");
+        }
+        mRefreshPendingListener = listener;
+        mRefreshPendingFraction = dragFraction;
+    }
+
+    /**
+     * Sets the moment at which {@link OnRefreshListener#onRefresh()} is called after the swipe
+     * gesture triggers a refresh. Dispatching earlier lets data loading overlap the animation.
+     *
+     * @param mode One of {@link #REFRESH_DISPATCH_AFTER_ANIMATION},
+     *             {@link #REFRESH_DISPATCH_ON_RELEASE} or {@link #REFRESH_DISPATCH_ON_THRESHOLD}
+     */
+    public void setRefreshDispatchMode(int mode) {
+        if (mode != REFRESH_DISPATCH_AFTER_ANIMATION && mode != REFRESH_DISPATCH_ON_RELEASE
+                && mode != REFRESH_DISPATCH_ON_THRESHOLD) {
+            throw new IllegalArgumentException("Unknown refresh dispatch mode: " + mode);
+        }
+        mRefreshDispatchMode = mode;
+    }
+
     /**
      * Notify the widget that refresh state has changed. Do not call this when
      * refresh is triggered by a swipe gesture.
@@ -459,37 +909,104 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
      * @param refreshing Whether or not the view should show refresh progress.
      */
     public void setRefreshing(boolean refreshing) {
-        if (refreshing && mRefreshing != refreshing) {
-            // scale and show
-            mRefreshing = refreshing;
-            int endTarget = 0;
-            if (!mUsingCustomStart) {
-                endTarget = mSpinnerOffsetEnd + mOriginalOffsetTop;
+        if (mRefreshDispatched && !mRefreshing) {
+            // Refresh was dispatched at the threshold and the progress view is still being
+            // dragged, the request is applied when it is released
+            mRefreshStopRequested = !refreshing;
+            return;
+        }
+        if (refreshing) {
+            if (mRefreshHidePending) {
+                // Keep showing the refresh instead of hiding and showing it again
+                mRefreshHidePending = false;
+                removeCallbacks(mDelayedRefreshHide);
+            }
+            if (mRefreshing || mRefreshShowPending) {
+                return;
+            }
+            if (mRefreshShowDelay > 0) {
+                mRefreshShowPending = true;
+                postDelayed(mDelayedRefreshShow, mRefreshShowDelay);
             } else {
-                endTarget = mSpinnerOffsetEnd;
+                showRefreshing();
             }
-            setTargetOffsetTopAndBottom(endTarget - mCurrentTargetOffsetTop);
-            mNotify = false;
-            startScaleUpAnimation(mRefreshListener);
         } else {
-            setRefreshing(refreshing, false /* notify */);
+            if (mRefreshShowPending) {
+                // Refresh finished before it was shown, so it is not shown at all
+                mRefreshShowPending = false;
+                removeCallbacks(mDelayedRefreshShow);
+            }
+            if (!mRefreshing || mRefreshHidePending) {
+                return;
+            }
+            long remainingShowTime = mRefreshMinShowTime
+                    - (SystemClock.uptimeMillis() - mRefreshShownTimeMillis);
+            if (remainingShowTime > 0) {
+                mRefreshHidePending = true;
+                postDelayed(mDelayedRefreshHide, remainingShowTime);
+            } else {
+                hideRefreshing();
+            }
         }
     }
 
-    private void startScaleUpAnimation(AnimationListener listener) {
-        mProgressView.setVisibility(View.VISIBLE);
-        mScaleAnimation = new Animation() {
-            @Override
-            public void applyTransformation(float interpolatedTime, Transformation t) {
-                setAnimationProgress(interpolatedTime);
-            }
-        };
-        mScaleAnimation.setDuration(mMediumAnimationDuration);
-        if (listener != null) {
-            mProgressView.setAnimationListener(listener);
+    /**
+     * Sets delays that smooth out rapid changes of {@link #setRefreshing(boolean)}. If refreshing
+     * is stopped before the show delay passes, the progress view is not shown at all, and once it
+     * is shown, it stays visible for at least the minimum show time. Both delays are 0 by default,
+     * which means that refreshing state is changed immediately. {@link #isRefreshing()} reflects
+     * the state of the progress view, not the latest requested one.
+     *
+     * @param showDelay   Delay in milliseconds before the progress view is shown
+     * @param minShowTime Minimum time in milliseconds the progress view stays visible, this
+     *                    applies to refreshes triggered by the swipe gesture too
+     */
+    public void setRefreshingDelays(int showDelay, int minShowTime) {
+        if (showDelay < 0 || minShowTime < 0) {
+            throw new IllegalArgumentException("Delays should be non-negative");
+        }
+        mRefreshShowDelay = showDelay;
+        mRefreshMinShowTime = minShowTime;
+    }
+
+    private void showRefreshing() {
+        // scale and show
+        mRefreshing = true;
+        mRefreshShownTimeMillis = SystemClock.uptimeMillis();
+        int endTarget = 0;
+        if (!mUsingCustomStart) {
+            endTarget = mSpinnerOffsetEnd + mOriginalOffsetTop;
+        } else {
+            endTarget = mSpinnerOffsetEnd;
         }
-        mProgressView.clearAnimation();
-        mProgressView.startAnimation(mScaleAnimation);
+        setTargetOffsetTopAndBottom(endTarget - mCurrentTargetOffsetTop);
+        mNotify = false;
+        startScaleUpAnimation();
+    }
+
+    private void hideRefreshing() {
+        if (mRefreshing && mMeasuringGesture) {
+            mGestureRefreshStopped = true;
+            mGestureRefreshStopTimeNanos = System.nanoTime();
+        }
+        setRefreshing(false, false /* notify */);
+    }
+
+    // Applies delayed refreshing state right away, so that it does not change while detached
+    private void flushPendingRefreshing() {
+        if (mRefreshShowPending) {
+            mDelayedRefreshShow.run();
+            removeCallbacks(mDelayedRefreshShow);
+        }
+        if (mRefreshHidePending) {
+            mDelayedRefreshHide.run();
+            removeCallbacks(mDelayedRefreshHide);
+        }
+    }
+
+    private void startScaleUpAnimation() {
+        ensureProgressView().setVisibility(View.VISIBLE);
+        startProgressAnimation(ANIMATION_SCALE_UP, mMediumAnimationDuration);
     }
 
     /**
@@ -505,44 +1022,48 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
     private void setRefreshing(boolean refreshing, final boolean notify) {
         if (mRefreshing != refreshing) {
             mNotify = notify;
-            ensureTarget();
             mRefreshing = refreshing;
             if (mRefreshing) {
-                animateOffsetToCorrectPosition(mCurrentTargetOffsetTop, mRefreshListener);
+                mRefreshShownTimeMillis = SystemClock.uptimeMillis();
+                animateOffsetToCorrectPosition(mCurrentTargetOffsetTop);
             } else {
-                startScaleDownAnimation(mRefreshListener);
+                mRefreshDispatched = false;
+                startScaleDownAnimation();
             }
         }
     }
 
-    void startScaleDownAnimation(AnimationListener listener) {
-        mScaleDownAnimation = new Animation() {
-            @Override
-            public void applyTransformation(float interpolatedTime, Transformation t) {
-                setAnimationProgress(1 - interpolatedTime);
-            }
-        };
-        mScaleDownAnimation.setDuration(SCALE_DOWN_DURATION);
-        mScaleDownAnimation.setAnimationListener(new AnimationListener() {
-            @Override
-            public void onAnimationStart(Animation animation) {
-
-            }
+    void startScaleDownAnimation() {
+        startProgressAnimation(ANIMATION_SCALE_DOWN, SCALE_DOWN_DURATION);
+    }
 
-            @Override
-            public void onAnimationEnd(Animation animation) {
-                mProgressView.setRotation(0f);
-                rotateAnimator.cancel();
+    void onRefreshAnimationEnd() {
+        if (mRefreshing) {
+            // Make sure the progress view is fully visible
+            if (mNotify && !mRefreshDispatched) {
+                dispatchOnRefresh();
             }
+            mCurrentTargetOffsetTop = getProgressViewTop();
+        } else {
+            reset();
+        }
+    }
 
-            @Override
-            public void onAnimationRepeat(Animation animation) {
+    private void clearRefreshDispatch() {
+        mRefreshDispatched = false;
+        mRefreshPendingNotified = false;
+        mRefreshStopRequested = false;
+    }
 
+    private void dispatchOnRefresh() {
+        mRefreshDispatched = true;
+        if (mListener != null) {
+            if (mMeasuringGesture && mGestureReleased) {
+                mRefreshMetrics.setReleaseToRefreshNanos(
+                        System.nanoTime() - mGestureReleaseTimeNanos);
             }
-        });
-        mProgressView.setAnimationListener(listener);
-        mProgressView.clearAnimation();
-        mProgressView.startAnimation(mScaleDownAnimation);
+            mListener.onRefresh();
+        }
     }
 
     /**
@@ -568,7 +1089,11 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
      * @param color
      */
     public void setProgressBackgroundColorSchemeColor(@ColorInt int color) {
-        mProgressView.setBackgroundColor(color);
+        mProgressBackgroundColor = color;
+        mHasProgressBackgroundColor = true;
+        if (mProgressView != null) {
+            mProgressView.setBackgroundColor(color);
+        }
     }
 
     /**
@@ -580,19 +1105,50 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
     }
 
     private void ensureTarget() {
-        // Don't bother getting the parent height if the parent hasn't been laid
-        // out yet.
         if (mTarget == null) {
             for (int i = 0; i < getChildCount(); i++) {
                 View child = getChildAt(i);
                 if (!child.equals(mProgressView)) {
                     mTarget = child;
+                    mChildScrollUpCacheValid = false;
                     break;
                 }
             }
         }
     }
 
+    /**
+     * Resolves target and index of the progress view if children have changed since the last
+     * call. They are resolved only after children change, so that touch handling and measuring
+     * don't have to look through children.
+     */
+    private void resolveChildren() {
+        if (!mChildrenChanged) {
+            return;
+        }
+        mChildrenChanged = false;
+        ensureTarget();
+        mCircleViewIndex = indexOfChild(mProgressView);
+    }
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        mChildrenChanged = true;
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        // Removed child can still be among children here, e.g. when several views are removed
+        // with removeViews(), so children are looked through only when they are needed next time
+        if (child == mTarget) {
+            mTarget = null;
+            mChildScrollUpCacheValid = false;
+        }
+        mChildrenChanged = true;
+    }
+
     /**
      * Set the distance to trigger a sync in dips
      *
@@ -600,18 +1156,17 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
      */
     public void setDistanceToTriggerSync(int distance) {
         mTotalDragDistance = distance;
+        updateDragTensionCurve();
     }
 
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        resolveChildren();
         final int width = getMeasuredWidth();
         final int height = getMeasuredHeight();
         if (getChildCount() == 0) {
             return;
         }
-        if (mTarget == null) {
-            ensureTarget();
-        }
         if (mTarget == null) {
             return;
         }
@@ -621,18 +1176,29 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         final int childWidth = width - getPaddingLeft() - getPaddingRight();
         final int childHeight = height - getPaddingTop() - getPaddingBottom();
         child.layout(childLeft, childTop, childLeft + childWidth, childTop + childHeight);
+        if (mProgressView != null) {
+            layoutProgressView();
+        }
+    }
+
+    private void layoutProgressView() {
+        final int width = getMeasuredWidth();
         int circleWidth = mProgressView.getMeasuredWidth();
         int circleHeight = mProgressView.getMeasuredHeight();
-        mProgressView.layout((width / 2 - circleWidth / 2), mCurrentTargetOffsetTop,
-                (width / 2 + circleWidth / 2), mCurrentTargetOffsetTop + circleHeight);
+        // In translation positioning mode progress view always stays at its start position and
+        // its current offset is expressed through translationY
+        int circleTop = mTranslationPositioning ? mOriginalOffsetTop : mCurrentTargetOffsetTop;
+        mProgressView.layout((width / 2 - circleWidth / 2), circleTop,
+                (width / 2 + circleWidth / 2), circleTop + circleHeight);
+        if (mTranslationPositioning) {
+            mProgressView.setTranslationY(mCurrentTargetOffsetTop - circleTop);
+        }
     }
 
     @Override
     public void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        if (mTarget == null) {
-            ensureTarget();
-        }
+        resolveChildren();
         if (mTarget == null) {
             return;
         }
@@ -640,16 +1206,14 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
                 getMeasuredWidth() - getPaddingLeft() - getPaddingRight(),
                 MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(
                 getMeasuredHeight() - getPaddingTop() - getPaddingBottom(), MeasureSpec.EXACTLY));
+        if (mProgressView != null) {
+            measureProgressView();
+        }
+    }
+
+    private void measureProgressView() {
         mProgressView.measure(MeasureSpec.makeMeasureSpec(mCircleDiameter, MeasureSpec.EXACTLY),
                 MeasureSpec.makeMeasureSpec(mCircleDiameter, MeasureSpec.EXACTLY));
-        mCircleViewIndex = -1;
-        // Get the index of the circleview.
-        for (int index = 0; index < getChildCount(); index++) {
-            if (getChildAt(index) == mProgressView) {
-                mCircleViewIndex = index;
-                break;
-            }
-        }
     }
 
     /**
@@ -662,18 +1226,155 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         return mCircleDiameter;
     }
 
-    /**
-     * @return Whether it is possible for the child view of this layout to
-     * scroll up. Override this if the child view is a custom view.
-     */
-    public boolean canChildScrollUp() {
-        if (mChildScrollUpCallback != null) {
-            return mChildScrollUpCallback.canChildScrollUp(this, mTarget);
+    /**
+     * @return Whether it is possible for the child view of this layout to
+     * scroll up. Override this if the child view is a custom view.
+     */
+    public boolean canChildScrollUp() {
+        resolveChildren();
+        if (mChildScrollUpCallback != null) {
+            return mChildScrollUpCallback.canChildScrollUp(this, mTarget);
+        }
+        if (mTarget instanceof ListView) {
+            return ListViewCompat.canScrollList((ListView) mTarget, -1);
+        }
+        return mTarget.canScrollVertically(-1);
+    }
+
+    /**
+     * Returns result of {@link #canChildScrollUp()} that is cached for the current gesture. Cache
+     * is invalidated on {@link MotionEvent#ACTION_DOWN} and whenever a view in the window reports a
+     * scroll change, so move events of a drag don't query scroll state of the target repeatedly.
+     */
+    private boolean canChildScrollUpCached() {
+        if (!mChildScrollUpCachingEnabled) {
+            return canChildScrollUp();
+        }
+        if (!mChildScrollUpCacheValid) {
+            mCachedChildScrollUp = canChildScrollUp();
+            mChildScrollUpCacheValid = true;
+        }
+        return mCachedChildScrollUp;
+    }
+
+    /**
+     * Sets whether a fling of the target that reaches its top should pull the progress view out
+     * and let it spring back. If the fling is fast enough to pull the progress view past the
+     * refresh threshold, refresh is triggered. This works only for targets that dispatch non-touch
+     * nested scrolls, such as RecyclerView or NestedScrollView. The default is false.
+     *
+     * @param enabled Whether flings should be able to trigger a refresh
+     */
+    public void setFlingToRefreshEnabled(boolean enabled) {
+        mFlingToRefreshEnabled = enabled;
+    }
+
+    /**
+     * Sets whether a refresh should be triggered when the refresh indicator is released fast
+     * enough to travel past the refresh threshold, even though it was not dragged the full
+     * distance. At least half of the distance should be dragged anyway. The default is false.
+     *
+     * @param enabled Whether refresh should be triggered by the projected position of the
+     *                released indicator
+     * @see #setRefreshTriggerPolicy(RefreshTriggerPolicy)
+     */
+    public void setPredictiveRefreshTriggerEnabled(boolean enabled) {
+        if (enabled) {
+            float density = getResources().getDisplayMetrics().density;
+            mRefreshTriggerPolicy = new PredictiveRefreshTriggerPolicy(
+                    PREDICTIVE_TRIGGER_DECELERATION * density);
+        } else {
+            mRefreshTriggerPolicy = DISTANCE_TRIGGER_POLICY;
+        }
+    }
+
+    /**
+     * Sets a policy that decides whether a refresh should be triggered when the refresh indicator
+     * is released. Passing null restores the default policy that triggers a refresh only if the
+     * indicator was released past {@link #setDistanceToTriggerSync(int) the threshold}.
+     *
+     * @param policy Policy that should be used when the indicator is released
+     */
+    public void setRefreshTriggerPolicy(@Nullable RefreshTriggerPolicy policy) {
+        mRefreshTriggerPolicy = policy != null ? policy : DISTANCE_TRIGGER_POLICY;
+    }
+
+    /**
+     * Sets whether the progress view should be rendered into a hardware layer while it is being
+     * scaled or rotated, so that these animations only transform the layer instead of redrawing
+     * the view. Progress views that keep invalidating themselves during these animations may want
+     * to disable this, since the layer is redrawn on every invalidation. Progress views that set
+     * a layer type by themselves are never affected. The default is true.
+     *
+     * @param enabled Whether hardware layer should be used during animations
+     */
+    public void setProgressViewLayerEnabled(boolean enabled) {
+        mProgressViewLayerEnabled = enabled;
+        updateProgressViewLayer();
+    }
+
+    /**
+     * Set the listener to be notified with timing statistics of each swipe gesture. Statistics
+     * are collected only while a listener is set.
+     *
+     * @param listener Listener that receives statistics once the gesture is over and progress
+     *                 view is hidden
+     */
+    public void setRefreshMetricsListener(@Nullable RefreshMetricsListener listener) {
+        mRefreshMetricsListener = listener;
+        if (listener == null) {
+            mMeasuringGesture = false;
+            stopDragFrameMeasurement();
+        }
+    }
+
+    private void startGestureMeasurement() {
+        mRefreshMetrics.clear();
+        mMeasuringGesture = true;
+        mGestureReleased = false;
+        mGestureRefreshStopped = false;
+        mFrameIntervalNanos = getFrameIntervalNanos();
+        mLastDragFrameTimeNanos = 0;
+        if (!mMeasuringDragFrames) {
+            mMeasuringDragFrames = true;
+            Choreographer.getInstance().postFrameCallback(mDragFrameCallback);
+        }
+    }
+
+    private void stopDragFrameMeasurement() {
+        mMeasuringDragFrames = false;
+        Choreographer.getInstance().removeFrameCallback(mDragFrameCallback);
+    }
+
+    private long getFrameIntervalNanos() {
+        Display display = getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        return (long) (NANOS_PER_SECOND / refreshRate);
+    }
+
+    private void finishGestureMeasurement() {
+        mMeasuringGesture = false;
+        stopDragFrameMeasurement();
+        if (mGestureRefreshStopped) {
+            mRefreshMetrics.setStopToResetNanos(System.nanoTime() - mGestureRefreshStopTimeNanos);
         }
-        if (mTarget instanceof ListView) {
-            return ListViewCompat.canScrollList((ListView) mTarget, -1);
+        if (mRefreshMetricsListener != null) {
+            mRefreshMetricsListener.onRefreshGestureMetrics(mRefreshMetrics);
         }
-        return mTarget.canScrollVertically(-1);
+    }
+
+    /**
+     * Sets whether result of {@link #canChildScrollUp()} should be cached during a touch gesture.
+     * Cached value is reset when a new gesture starts and when any view in the window reports a
+     * scroll change. Don't enable caching if your {@link OnChildScrollUpCallback} or override of
+     * canChildScrollUp() depends on a state that can change without scrolling. The default is
+     * false.
+     *
+     * @param enabled Whether result of canChildScrollUp() should be cached
+     */
+    public void setChildScrollUpCachingEnabled(boolean enabled) {
+        mChildScrollUpCachingEnabled = enabled;
+        mChildScrollUpCacheValid = false;
     }
 
     /**
@@ -684,30 +1385,41 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
      */
     public void setOnChildScrollUpCallback(@Nullable OnChildScrollUpCallback callback) {
         mChildScrollUpCallback = callback;
+        mChildScrollUpCacheValid = false;
     }
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
-        ensureTarget();
-
         final int action = ev.getActionMasked();
         int pointerIndex;
 
+        if (action == MotionEvent.ACTION_DOWN && mCurrentAnimation == ANIMATION_FLING_ABSORB) {
+            // User caught the progress view while it was pulled out by a fling
+            reset();
+        }
+
+        if (action == MotionEvent.ACTION_DOWN) {
+            mChildScrollUpCacheValid = false;
+        }
+
         if (mReturningToStart && action == MotionEvent.ACTION_DOWN) {
             mReturningToStart = false;
         }
 
-        if (!isEnabled() || mReturningToStart || canChildScrollUp()
+        if (!isEnabled() || mReturningToStart || canChildScrollUpCached()
                 || mRefreshing || mNestedScrollInProgress) {
             // Fail fast if we're not in a state where a swipe is possible
             return false;
         }
 
+        trackVelocity(ev, action);
+
         switch (action) {
             case MotionEvent.ACTION_DOWN:
-                setTargetOffsetTopAndBottom(mOriginalOffsetTop - mProgressView.getTop());
+                setTargetOffsetTopAndBottom(mOriginalOffsetTop - getProgressViewTop());
                 mActivePointerId = ev.getPointerId(0);
                 mIsBeingDragged = false;
+                clearRefreshDispatch();
 
                 pointerIndex = ev.findPointerIndex(mActivePointerId);
                 if (pointerIndex < 0) {
@@ -772,6 +1484,7 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
 
     @Override
     public void requestDisallowInterceptTouchEvent(boolean b) {
+        resolveChildren();
         // if this is a List < L or another view that doesn't support nested
         // scrolling, ignore this request so that the vertical scroll event
         // isn't stolen
@@ -798,6 +1511,9 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
                                int dxUnconsumed, int dyUnconsumed, @ViewCompat.NestedScrollType int type,
                                @NonNull int[] consumed) {
         if (type != ViewCompat.TYPE_TOUCH) {
+            if (type == ViewCompat.TYPE_NON_TOUCH && mFlingToRefreshEnabled) {
+                onNonTouchNestedScroll(dyConsumed, dyUnconsumed, consumed);
+            }
             return;
         }
 
@@ -840,6 +1556,24 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         }
     }
 
+    private void onNonTouchNestedScroll(int dyConsumed, int dyUnconsumed, @NonNull int[] consumed) {
+        if (dyUnconsumed >= 0) {
+            return;
+        }
+        if (!mFlingAbsorbed) {
+            if (mRefreshing || canChildScrollUp()) {
+                return;
+            }
+            mFlingAbsorbed = true;
+            // Velocity of the fling is estimated from the distance it scrolled during last frame
+            float velocity = Math.abs(dyConsumed + dyUnconsumed) * (float) NANOS_PER_SECOND
+                    / getFrameIntervalNanos();
+            absorbFling(velocity);
+        }
+        // Consume the rest of the fling, so that the target doesn't show its own overscroll
+        consumed[1] += dyUnconsumed;
+    }
+
     // NestedScrollingParent 2
 
     @Override
@@ -847,25 +1581,28 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         if (type == ViewCompat.TYPE_TOUCH) {
             return onStartNestedScroll(child, target, axes);
         } else {
-            return false;
+            // Non-touch scrolls are accepted only to absorb flings that reach the top
+            return mFlingToRefreshEnabled && isEnabled() && !mReturningToStart && !mRefreshing
+                    && (axes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
         }
     }
 
     @Override
     public void onNestedScrollAccepted(View child, View target, int axes, int type) {
-        // Should always be true because onStartNestedScroll returns false for all type !=
-        // ViewCompat.TYPE_TOUCH, but check just in case.
         if (type == ViewCompat.TYPE_TOUCH) {
             onNestedScrollAccepted(child, target, axes);
+        } else {
+            mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes, type);
+            mFlingAbsorbed = false;
         }
     }
 
     @Override
     public void onStopNestedScroll(View target, int type) {
-        // Should always be true because onStartNestedScroll returns false for all type !=
-        // ViewCompat.TYPE_TOUCH, but check just in case.
         if (type == ViewCompat.TYPE_TOUCH) {
             onStopNestedScroll(target);
+        } else {
+            mNestedScrollingParentHelper.onStopNestedScroll(target, type);
         }
     }
 
@@ -878,8 +1615,7 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
 
     @Override
     public void onNestedPreScroll(View target, int dx, int dy, int[] consumed, int type) {
-        // Should always be true because onStartNestedScroll returns false for all type !=
-        // ViewCompat.TYPE_TOUCH, but check just in case.
+        // Non-touch scrolls are only absorbed once they reach the top in onNestedScroll
         if (type == ViewCompat.TYPE_TOUCH) {
             onNestedPreScroll(target, dx, dy, consumed);
         }
@@ -900,7 +1636,9 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         // Dispatch up to the nested parent
         startNestedScroll(axes & ViewCompat.SCROLL_AXIS_VERTICAL);
         mTotalUnconsumed = 0;
+        mReleaseVelocityY = 0;
         mNestedScrollInProgress = true;
+        clearRefreshDispatch();
     }
 
     @Override
@@ -923,7 +1661,7 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         // If we get back to mTotalUnconsumed == 0 and there is more to go, hide
         // the circle so it isn't exposed if its blocking content is moved
         if (mUsingCustomStart && dy > 0 && mTotalUnconsumed == 0
-                && Math.abs(dy - consumed[1]) > 0) {
+                && Math.abs(dy - consumed[1]) > 0 && mProgressView != null) {
             mProgressView.setVisibility(View.GONE);
         }
 
@@ -945,10 +1683,13 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         mNestedScrollingParentHelper.onStopNestedScroll(target);
         mNestedScrollInProgress = false;
         // Finish the spinner for nested scrolling if we ever consumed any
-        // unconsumed nested scroll
-        if (mTotalUnconsumed > 0) {
+        // unconsumed nested scroll or if the refresh was already dispatched
+        if (mTotalUnconsumed > 0 || mRefreshDispatched) {
             finishSpinner(mTotalUnconsumed);
             mTotalUnconsumed = 0;
+        } else if (mMeasuringGesture) {
+            // Spinner was dragged back to the start, so the gesture is over without a release
+            finishGestureMeasurement();
         }
         // Dispatch up our nested parent
         stopNestedScroll();
@@ -964,6 +1705,11 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
     @Override
     public boolean onNestedPreFling(View target, float velocityX,
                                     float velocityY) {
+        if (mTotalUnconsumed > 0) {
+            // Progress view follows the finger, while the target reports velocity of its content
+            // which moves in the opposite direction
+            mReleaseVelocityY = -velocityY;
+        }
         return dispatchNestedPreFling(velocityX, velocityY);
     }
 
@@ -1068,28 +1814,20 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         return mNestedScrollingChildHelper.dispatchNestedPreFling(velocityX, velocityY);
     }
 
-    private boolean isAnimationRunning(Animation animation) {
-        return animation != null && animation.hasStarted() && !animation.hasEnded();
-    }
-
     private void moveSpinner(float overscrollTop) {
-        float originalDragPercent = overscrollTop / mTotalDragDistance;
-
-        float dragPercent = Math.min(1f, Math.abs(originalDragPercent));
-        float adjustedPercent = (float) Math.max(dragPercent - .4, 0) * 5 / 3;
-        float extraOS = Math.abs(overscrollTop) - mTotalDragDistance;
-        float slingshotDist = mCustomSlingshotDistance > 0
-                ? mCustomSlingshotDistance
-                : (mUsingCustomStart
-                ? mSpinnerOffsetEnd - mOriginalOffsetTop
-                : mSpinnerOffsetEnd);
-        float tensionSlingshotPercent = Math.max(0, Math.min(extraOS, slingshotDist * 2)
-                / slingshotDist);
-        float tensionPercent = (float) ((tensionSlingshotPercent / 4) - Math.pow(
-                (tensionSlingshotPercent / 4), 2)) * 2f;
-        float extraMove = slingshotDist * tensionPercent * 2;
-
-        int targetY = mOriginalOffsetTop + (int) ((slingshotDist * dragPercent) + extraMove);
+        long moveStartNanos = 0;
+        if (mRefreshMetricsListener != null) {
+            if (mMeasuringGesture && mGestureReleased) {
+                // New drag started before the previous gesture was over
+                finishGestureMeasurement();
+            }
+            if (!mMeasuringGesture) {
+                startGestureMeasurement();
+            }
+            moveStartNanos = System.nanoTime();
+        }
+        int targetY = mOriginalOffsetTop + (int) mDragTensionCurve.getSpinnerOffset(overscrollTop);
+        ensureProgressView();
         if (mProgressView.getVisibility() != View.VISIBLE) {
             mProgressView.setVisibility(View.VISIBLE);
         }
@@ -1102,36 +1840,44 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
             setAnimationProgress(Math.min(1f, overscrollTop / mTotalDragDistance));
         }
         setTargetOffsetTopAndBottom(targetY - mCurrentTargetOffsetTop);
+        mProgressView.onProgress(overscrollTop / mTotalDragDistance,
+                BaseProgressView.STATE_DRAGGING);
+        if (mRefreshPendingListener != null && !mRefreshPendingNotified
+                && overscrollTop >= mTotalDragDistance * mRefreshPendingFraction) {
+            mRefreshPendingNotified = true;
+            mRefreshPendingListener.onRefreshPending();
+        }
+        if (mRefreshDispatchMode == REFRESH_DISPATCH_ON_THRESHOLD && !mRefreshDispatched
+                && mListener != null && overscrollTop > mTotalDragDistance) {
+            dispatchOnRefresh();
+        }
+        if (moveStartNanos != 0) {
+            mRefreshMetrics.addMoveSpinnerNanos(System.nanoTime() - moveStartNanos);
+        }
     }
 
     private void finishSpinner(float overscrollTop) {
-        if (overscrollTop > mTotalDragDistance) {
+        ensureProgressView();
+        if (mMeasuringGesture) {
+            stopDragFrameMeasurement();
+            mGestureReleased = true;
+            mGestureReleaseTimeNanos = System.nanoTime();
+        }
+        // Refresh that was already dispatched at the threshold can't be cancelled by dragging,
+        // but it could have been stopped before the release
+        boolean refresh = mRefreshDispatched ? !mRefreshStopRequested
+                : mRefreshTriggerPolicy.shouldTriggerRefresh(overscrollTop, mReleaseVelocityY,
+                mTotalDragDistance);
+        if (refresh) {
             setRefreshing(true, true /* notify */);
+            if (mRefreshDispatchMode == REFRESH_DISPATCH_ON_RELEASE && !mRefreshDispatched) {
+                dispatchOnRefresh();
+            }
         } else {
             // cancel refresh
+            clearRefreshDispatch();
             mRefreshing = false;
-            AnimationListener listener = null;
-            if (!mScale) {
-                listener = new AnimationListener() {
-
-                    @Override
-                    public void onAnimationStart(Animation animation) {
-                    }
-
-                    @Override
-                    public void onAnimationEnd(Animation animation) {
-                        if (!mScale) {
-                            startScaleDownAnimation(null);
-                        }
-                    }
-
-                    @Override
-                    public void onAnimationRepeat(Animation animation) {
-                    }
-
-                };
-            }
-            animateOffsetToStartPosition(mCurrentTargetOffsetTop, listener);
+            animateOffsetToStartPosition(mCurrentTargetOffsetTop);
         }
     }
 
@@ -1140,20 +1886,27 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         final int action = ev.getActionMasked();
         int pointerIndex = -1;
 
+        if (action == MotionEvent.ACTION_DOWN) {
+            mChildScrollUpCacheValid = false;
+        }
+
         if (mReturningToStart && action == MotionEvent.ACTION_DOWN) {
             mReturningToStart = false;
         }
 
-        if (!isEnabled() || mReturningToStart || canChildScrollUp()
+        if (!isEnabled() || mReturningToStart || canChildScrollUpCached()
                 || mRefreshing || mNestedScrollInProgress) {
             // Fail fast if we're not in a state where a swipe is possible
             return false;
         }
 
+        trackVelocity(ev, action);
+
         switch (action) {
             case MotionEvent.ACTION_DOWN:
                 mActivePointerId = ev.getPointerId(0);
                 mIsBeingDragged = false;
+                clearRefreshDispatch();
                 break;
 
             case MotionEvent.ACTION_MOVE: {
@@ -1205,126 +1958,427 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
                     final float y = ev.getY(pointerIndex);
                     final float overscrollTop = (y - mInitialMotionY) * DRAG_RATE;
                     mIsBeingDragged = false;
+                    mVelocityTracker.computeCurrentVelocity(1000);
+                    mReleaseVelocityY = mVelocityTracker.getYVelocity(mActivePointerId)
+                            * DRAG_RATE;
                     finishSpinner(overscrollTop);
                 }
                 mActivePointerId = INVALID_POINTER;
                 return false;
             }
             case MotionEvent.ACTION_CANCEL:
+                if (mIsBeingDragged) {
+                    // Gesture was taken away, finish it as if the progress view was released
+                    // where it started, so that the refresh that was already dispatched is shown
+                    mIsBeingDragged = false;
+                    mReleaseVelocityY = 0;
+                    finishSpinner(0);
+                }
+                mActivePointerId = INVALID_POINTER;
                 return false;
         }
 
         return true;
     }
 
+    private void trackVelocity(MotionEvent ev, int action) {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        if (action == MotionEvent.ACTION_DOWN) {
+            mVelocityTracker.clear();
+        }
+        mVelocityTracker.addMovement(ev);
+    }
+
     private void startDragging(float y) {
         final float yDiff = y - mInitialDownY;
         if (yDiff > mTouchSlop && !mIsBeingDragged) {
             mInitialMotionY = mInitialDownY + mTouchSlop;
             mIsBeingDragged = true;
+            ensureProgressView();
+        }
+    }
+
+    private void animateOffsetToCorrectPosition(int from) {
+        int endTarget;
+        if (!mUsingCustomStart) {
+            endTarget = mSpinnerOffsetEnd - Math.abs(mOriginalOffsetTop);
+        } else {
+            endTarget = mSpinnerOffsetEnd;
+        }
+        startSettleAnimation(ANIMATION_TO_CORRECT_POSITION, from, endTarget);
+        startSpinning();
+    }
+
+    private void animateOffsetToStartPosition(int from) {
+        if (mScale) {
+            // Scale the item back down
+            mReleaseVelocityY = 0;
+            startScaleDownReturnToStartAnimation(from);
+        } else {
+            startSettleAnimation(ANIMATION_TO_START, from, mOriginalOffsetTop);
+        }
+    }
+
+    /**
+     * Starts moving the progress view to the given position with {@link #mSettleSpring}, which is
+     * seeded with the release velocity. If the progress view is already settling, the running
+     * spring is retargeted, so it keeps its current position and velocity.
+     */
+    private void startSettleAnimation(int animation, int from, int finalTop) {
+        float value = from;
+        float velocity = mReleaseVelocityY;
+        mReleaseVelocityY = 0;
+        if (isSettleAnimation(mCurrentAnimation)) {
+            value = mSettleSpring.getValue();
+            velocity = mSettleSpring.getVelocity();
         }
+        mSettleSpring.start(value, velocity, finalTop);
+        startProgressAnimation(animation, 0);
+    }
+
+    private static boolean isSettleAnimation(int animation) {
+        return animation == ANIMATION_TO_CORRECT_POSITION || animation == ANIMATION_TO_START;
     }
 
-    private void animateOffsetToCorrectPosition(int from, AnimationListener listener) {
+    /**
+     * @return Whether the progress view came to rest
+     */
+    private boolean stepSettle(long deltaNanos) {
+        boolean atRest = mSettleSpring.update(deltaNanos);
+        setTargetOffsetTopAndBottom(Math.round(mSettleSpring.getValue()) - getProgressViewTop());
+        return atRest;
+    }
+
+    /**
+     * Reports position of the progress view that is being animated after release as the fraction
+     * of the distance to the refresh threshold that would put it there.
+     */
+    private void dispatchSettleProgress(int animation) {
+        float thresholdOffset = mDragTensionCurve.getSpinnerOffset(mTotalDragDistance);
+        float dragFraction = thresholdOffset > 0
+                ? (getProgressViewTop() - mOriginalOffsetTop) / thresholdOffset
+                : 0f;
+        mProgressView.onProgress(dragFraction, animation == ANIMATION_TO_CORRECT_POSITION
+                ? BaseProgressView.STATE_SETTLING_TO_REFRESH
+                : BaseProgressView.STATE_SETTLING_TO_START);
+    }
+
+    /**
+     * Sets parameters of the spring that moves the refresh indicator to its refreshing or start
+     * position after the user releases it. The spring starts with the velocity of the release.
+     *
+     * @param stiffness    Stiffness of the spring, should be greater than 0. The default is 1500
+     * @param dampingRatio Damping ratio of the spring, should be greater than 0. Values less than
+     *                     1 make the indicator bounce. The default is 1
+     */
+    public void setSettleSpring(float stiffness, float dampingRatio) {
+        mSettleSpring.setStiffness(stiffness);
+        mSettleSpring.setDampingRatio(dampingRatio);
+    }
+
+    void moveToStart(float interpolatedTime) {
+        int targetTop = (mFrom + (int) ((mOriginalOffsetTop - mFrom) * interpolatedTime));
+        int offset = targetTop - getProgressViewTop();
+        setTargetOffsetTopAndBottom(offset);
+    }
+
+    private void startScaleDownReturnToStartAnimation(int from) {
         mFrom = from;
-        mAnimateToCorrectPosition.reset();
-        mAnimateToCorrectPosition.setDuration(ANIMATE_TO_TRIGGER_DURATION);
-        mAnimateToCorrectPosition.setInterpolator(mDecelerateInterpolator);
-        mAnimateToCorrectPosition.setAnimationListener(new AnimationListener() {
-            @Override
-            public void onAnimationStart(Animation animation) {
-                mProgressView.onStartAnimatingToIdlePosition();
-            }
+        mStartingScale = mProgressView.getScaleX();
+        startProgressAnimation(ANIMATION_SCALE_DOWN_TO_START, SCALE_DOWN_DURATION);
+    }
 
-            @Override
-            public void onAnimationEnd(Animation animation) {
-                mProgressView.onEndAnimatingToIdlePosition();
-            }
+    /**
+     * Starts one of ANIMATION_* animations, cancelling the one that is currently running.
+     */
+    private void startProgressAnimation(int animation, int duration) {
+        cancelCurrentAnimation();
+        mCurrentAnimation = animation;
+        mCurrentAnimationDuration = duration;
+        mAnimationStartTimeNanos = -1;
+        if (animation == ANIMATION_TO_CORRECT_POSITION) {
+            mProgressView.onStartAnimatingToIdlePosition();
+        }
+        updateProgressViewLayer();
+        scheduleAnimationFrame();
+    }
 
-            @Override
-            public void onAnimationRepeat(Animation animation) {
+    private void cancelCurrentAnimation() {
+        int animation = mCurrentAnimation;
+        mCurrentAnimation = ANIMATION_NONE;
+        if (animation == ANIMATION_TO_CORRECT_POSITION) {
+            // Animation was interrupted, but progress view still has to know that it is over
+            mProgressView.onEndAnimatingToIdlePosition();
+        }
+    }
 
+    private void startSpinning() {
+        mSpinning = true;
+        AnimatedVectorDrawable spinnerDrawable = mProgressView.getSpinnerDrawable();
+        if (spinnerDrawable != null) {
+            // Progress view spins by itself, possibly on RenderThread
+            if (!mAnimationsPaused) {
+                spinnerDrawable.start();
             }
-        });
-        if (listener != null) {
-            mProgressView.setAnimationListener(listener);
+        } else {
+            mSpinStartRotation = mProgressView.getRotation();
+            mSpinStartTimeNanos = -1;
+            scheduleAnimationFrame();
         }
-        mProgressView.clearAnimation();
-        mProgressView.startAnimation(mAnimateToCorrectPosition);
-        rotateAnimator.cancel();
-        rotateAnimator.setFloatValues(mProgressView.getRotation(), 360f);
-        rotateAnimator.start();
+        updateProgressViewLayer();
     }
 
-    private void animateOffsetToStartPosition(int from, AnimationListener listener) {
-        if (mScale) {
-            // Scale the item back down
-            startScaleDownReturnToStartAnimation(from, listener);
+    private void stopSpinning() {
+        mSpinning = false;
+        if (mProgressView == null) {
+            return;
+        }
+        mProgressView.setRotation(0f);
+        AnimatedVectorDrawable spinnerDrawable = mProgressView.getSpinnerDrawable();
+        if (spinnerDrawable != null) {
+            spinnerDrawable.stop();
+        }
+        updateProgressViewLayer();
+    }
+
+    /**
+     * @return Whether the progress view is spinning and this layout has to rotate it
+     */
+    private boolean isRotatingProgressView() {
+        return mSpinning && mProgressView.getSpinnerDrawable() == null;
+    }
+
+    private static boolean isScaleAnimation(int animation) {
+        return animation == ANIMATION_SCALE_UP || animation == ANIMATION_SCALE_DOWN
+                || animation == ANIMATION_SCALE_DOWN_TO_START;
+    }
+
+    private void updateProgressViewLayer() {
+        if (mProgressView == null) {
+            return;
+        }
+        boolean active = mProgressViewLayerEnabled
+                && (isRotatingProgressView() || isScaleAnimation(mCurrentAnimation));
+        if (active == mProgressViewLayerActive) {
+            return;
+        }
+        if (active && mProgressView.getLayerType() != View.LAYER_TYPE_NONE) {
+            // Progress view manages its layer by itself
+            return;
+        }
+        mProgressViewLayerActive = active;
+        mProgressView.setLayerType(active ? View.LAYER_TYPE_HARDWARE : View.LAYER_TYPE_NONE, null);
+    }
+
+    private void cancelAnimations() {
+        cancelCurrentAnimation();
+        stopSpinning();
+        if (mAnimationFrameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(mAnimationFrameCallback);
+            mAnimationFrameScheduled = false;
+        }
+        updateProgressViewLayer();
+    }
+
+    private void scheduleAnimationFrame() {
+        if (mAnimationsPaused) {
+            // Nobody can see intermediate frames, so there is no need to tick frame callback
+            finishCurrentAnimationImmediately();
+            return;
+        }
+        if (!mAnimationFrameScheduled) {
+            mAnimationFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mAnimationFrameCallback);
+        }
+    }
+
+    private void finishCurrentAnimationImmediately() {
+        while (mCurrentAnimation != ANIMATION_NONE) {
+            int animation = mCurrentAnimation;
+            applyAnimation(animation, 1f);
+            mCurrentAnimation = ANIMATION_NONE;
+            onAnimationFinished(animation);
+        }
+        updateProgressViewLayer();
+    }
+
+    private void setAnimationsPaused(boolean paused) {
+        if (mAnimationsPaused == paused) {
+            return;
+        }
+        mAnimationsPaused = paused;
+        if (mProgressView == null) {
+            // Nothing can be animated before the progress view is created
+            return;
+        }
+        AnimatedVectorDrawable spinnerDrawable = mProgressView.getSpinnerDrawable();
+        if (paused) {
+            finishCurrentAnimationImmediately();
+            if (mAnimationFrameScheduled) {
+                Choreographer.getInstance().removeFrameCallback(mAnimationFrameCallback);
+                mAnimationFrameScheduled = false;
+            }
+            if (mSpinning && spinnerDrawable != null) {
+                spinnerDrawable.stop();
+            }
+            mProgressView.onPauseAnimations();
         } else {
-            mFrom = from;
-            mAnimateToStartPosition.reset();
-            mAnimateToStartPosition.setDuration(ANIMATE_TO_START_DURATION);
-            mAnimateToStartPosition.setInterpolator(mDecelerateInterpolator);
-            if (listener != null) {
-                mProgressView.setAnimationListener(listener);
+            if (mSpinning && spinnerDrawable != null) {
+                spinnerDrawable.start();
+            } else if (mSpinning) {
+                // Continue spinning from the angle where it was paused
+                mSpinStartRotation = mProgressView.getRotation();
+                mSpinStartTimeNanos = -1;
+                scheduleAnimationFrame();
             }
-            mProgressView.clearAnimation();
-            mProgressView.startAnimation(mAnimateToStartPosition);
+            mProgressView.onResumeAnimations();
         }
     }
 
-    private final Animation mAnimateToCorrectPosition = new Animation() {
-        @Override
-        public void applyTransformation(float interpolatedTime, Transformation t) {
-            int endTarget;
-            if (!mUsingCustomStart) {
-                endTarget = mSpinnerOffsetEnd - Math.abs(mOriginalOffsetTop);
+    private void updateAnimationsPaused() {
+        setAnimationsPaused(getWindowVisibility() != View.VISIBLE || !isShown());
+    }
+
+    void onAnimationFrame(long frameTimeNanos) {
+        if (mCurrentAnimation != ANIMATION_NONE) {
+            if (mAnimationStartTimeNanos < 0) {
+                mAnimationStartTimeNanos = frameTimeNanos;
+                mLastAnimationFrameTimeNanos = frameTimeNanos;
+            }
+            int animation = mCurrentAnimation;
+            boolean finished;
+            if (animation == ANIMATION_FLING_ABSORB) {
+                finished = stepFlingAbsorb(frameTimeNanos - mLastAnimationFrameTimeNanos);
+            } else if (isSettleAnimation(animation)) {
+                finished = stepSettle(frameTimeNanos - mLastAnimationFrameTimeNanos);
+                dispatchSettleProgress(animation);
             } else {
-                endTarget = mSpinnerOffsetEnd;
+                long duration = mCurrentAnimationDuration * NANOS_PER_MILLI;
+                float fraction = duration > 0
+                        ? Math.min(1f, (frameTimeNanos - mAnimationStartTimeNanos) / (float) duration)
+                        : 1f;
+                applyAnimation(animation, fraction);
+                if (animation == ANIMATION_SCALE_DOWN_TO_START) {
+                    dispatchSettleProgress(animation);
+                }
+                finished = fraction >= 1f;
+            }
+            mLastAnimationFrameTimeNanos = frameTimeNanos;
+            if (finished) {
+                mCurrentAnimation = ANIMATION_NONE;
+                onAnimationFinished(animation);
+                updateProgressViewLayer();
             }
-            int targetTop = (mFrom + (int) ((endTarget - mFrom) * interpolatedTime));
-            int offset = targetTop - mProgressView.getTop();
-            setTargetOffsetTopAndBottom(offset);
         }
-    };
+        if (isRotatingProgressView()) {
+            if (mSpinStartTimeNanos < 0) {
+                mSpinStartTimeNanos = frameTimeNanos;
+            }
+            long duration = ROTATION_DURATION * NANOS_PER_MILLI;
+            long elapsed = (frameTimeNanos - mSpinStartTimeNanos) % duration;
+            mProgressView.setRotation((mSpinStartRotation + 360f * elapsed / duration) % 360f);
+        }
+        if (mCurrentAnimation != ANIMATION_NONE || isRotatingProgressView()) {
+            scheduleAnimationFrame();
+        }
+    }
 
-    void moveToStart(float interpolatedTime) {
-        int targetTop = (mFrom + (int) ((mOriginalOffsetTop - mFrom) * interpolatedTime));
-        int offset = targetTop - mProgressView.getTop();
-        setTargetOffsetTopAndBottom(offset);
+    private void applyAnimation(int animation, float fraction) {
+        switch (animation) {
+            case ANIMATION_SCALE_UP:
+                setAnimationProgress(mScaleInterpolator.getInterpolation(fraction));
+                break;
+            case ANIMATION_SCALE_DOWN:
+                setAnimationProgress(1 - mScaleInterpolator.getInterpolation(fraction));
+                break;
+            case ANIMATION_SCALE_DOWN_TO_START: {
+                float interpolatedTime = mScaleInterpolator.getInterpolation(fraction);
+                setAnimationProgress(mStartingScale + (-mStartingScale * interpolatedTime));
+                moveToStart(interpolatedTime);
+                break;
+            }
+            case ANIMATION_TO_CORRECT_POSITION:
+            case ANIMATION_TO_START:
+                // Settle animations are driven by the spring, here they can only be finished
+                if (fraction >= 1f) {
+                    setTargetOffsetTopAndBottom(
+                            (int) mSettleSpring.getFinalPosition() - getProgressViewTop());
+                }
+                break;
+        }
     }
 
-    private final Animation mAnimateToStartPosition = new Animation() {
-        @Override
-        public void applyTransformation(float interpolatedTime, Transformation t) {
-            moveToStart(interpolatedTime);
+    private void onAnimationFinished(int animation) {
+        switch (animation) {
+            case ANIMATION_SCALE_UP:
+                onRefreshAnimationEnd();
+                break;
+            case ANIMATION_TO_CORRECT_POSITION:
+                mProgressView.onEndAnimatingToIdlePosition();
+                onRefreshAnimationEnd();
+                break;
+            case ANIMATION_SCALE_DOWN:
+                stopSpinning();
+                onRefreshAnimationEnd();
+                break;
+            case ANIMATION_TO_START:
+                if (!mScale) {
+                    startScaleDownAnimation();
+                }
+                break;
+            case ANIMATION_SCALE_DOWN_TO_START:
+            case ANIMATION_FLING_ABSORB:
+                reset();
+                break;
         }
-    };
+    }
 
-    private void startScaleDownReturnToStartAnimation(int from,
-                                                      AnimationListener listener) {
-        mFrom = from;
-        mStartingScale = mProgressView.getScaleX();
-        mScaleDownToStartAnimation = new Animation() {
-            @Override
-            public void applyTransformation(float interpolatedTime, Transformation t) {
-                float targetScale = (mStartingScale + (-mStartingScale * interpolatedTime));
-                setAnimationProgress(targetScale);
-                moveToStart(interpolatedTime);
-            }
-        };
-        mScaleDownToStartAnimation.setDuration(SCALE_DOWN_DURATION);
-        if (listener != null) {
-            mProgressView.setAnimationListener(listener);
+    private void absorbFling(float velocity) {
+        mFlingAbsorbSpring.start(0f, velocity * DRAG_RATE, 0f);
+        startProgressAnimation(ANIMATION_FLING_ABSORB, 0);
+    }
+
+    /**
+     * @return Whether the progress view returned to its start position
+     */
+    private boolean stepFlingAbsorb(long deltaNanos) {
+        boolean atRest = mFlingAbsorbSpring.update(deltaNanos);
+        float overscrollTop = Math.max(0f, mFlingAbsorbSpring.getValue());
+        moveSpinner(overscrollTop);
+        if (overscrollTop > mTotalDragDistance) {
+            // Fling was strong enough to pull the progress view past the refresh threshold
+            mCurrentAnimation = ANIMATION_NONE;
+            mReleaseVelocityY = mFlingAbsorbSpring.getVelocity();
+            finishSpinner(overscrollTop);
+            return false;
         }
-        mProgressView.clearAnimation();
-        mProgressView.startAnimation(mScaleDownToStartAnimation);
+        return atRest;
     }
 
     void setTargetOffsetTopAndBottom(int offset) {
-        mProgressView.bringToFront();
-        ViewCompat.offsetTopAndBottom(mProgressView, offset);
-        mCurrentTargetOffsetTop = mProgressView.getTop();
+        // Progress view is drawn above the target by getChildDrawingOrder(), so there is no need
+        // to bring it to front, which would request layout of the whole hierarchy on each frame
+        if (mProgressView == null) {
+            mCurrentTargetOffsetTop += offset;
+        } else if (mTranslationPositioning) {
+            mCurrentTargetOffsetTop += offset;
+            mProgressView.setTranslationY(mCurrentTargetOffsetTop - mProgressView.getTop());
+        } else {
+            ViewCompat.offsetTopAndBottom(mProgressView, offset);
+            mCurrentTargetOffsetTop = mProgressView.getTop();
+        }
+    }
+
+    /**
+     * @return Current top position of the progress view, including its translation if
+     * {@link #setTranslationPositioningEnabled(boolean)} is enabled
+     */
+    private int getProgressViewTop() {
+        return mTranslationPositioning || mProgressView == null
+                ? mCurrentTargetOffsetTop
+                : mProgressView.getTop();
     }
 
     private void onSecondaryPointerUp(MotionEvent ev) {
@@ -1349,6 +2403,20 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
         void onRefresh();
     }
 
+    /**
+     * Classes that wish to start loading data before the swipe gesture triggers a refresh
+     * should implement this interface.
+     *
+     * @see #setOnRefreshPendingListener(OnRefreshPendingListener, float)
+     */
+    public interface OnRefreshPendingListener {
+        /**
+         * Called when the progress view is dragged far enough that a refresh is likely to be
+         * triggered.
+         */
+        void onRefreshPending();
+    }
+
     /**
      * Classes that wish to override {@link CustomizableSwipeRefreshLayout#canChildScrollUp()} method
      * behavior should implement this interface.
@@ -1364,4 +2432,84 @@ public class CustomizableSwipeRefreshLayout extends ViewGroup implements NestedS
          */
         boolean canChildScrollUp(@NonNull CustomizableSwipeRefreshLayout parent, @Nullable View child);
     }
+
+    /**
+     * Classes that wish to decide whether a released swipe gesture should trigger a refresh
+     * should implement this interface.
+     *
+     * @see #setRefreshTriggerPolicy(RefreshTriggerPolicy)
+     */
+    public interface RefreshTriggerPolicy {
+        /**
+         * Called when the refresh indicator is released.
+         *
+         * @param overscrollTop     Distance in pixels that was dragged
+         * @param velocity          Velocity of the indicator in pixels per second at the moment
+         *                          of release, positive values mean downward movement
+         * @param totalDragDistance Distance in pixels that should be dragged to trigger a refresh
+         * @return Whether a refresh should be triggered
+         */
+        boolean shouldTriggerRefresh(float overscrollTop, float velocity, float totalDragDistance);
+    }
+
+    /**
+     * Classes that wish to receive timing statistics of swipe gestures should implement this
+     * interface.
+     *
+     * @see #setRefreshMetricsListener(RefreshMetricsListener)
+     */
+    public interface RefreshMetricsListener {
+        /**
+         * Called when a swipe gesture is over and the progress view is hidden.
+         *
+         * @param metrics Statistics of the gesture. This instance is reused for the next gestures
+         */
+        void onRefreshGestureMetrics(@NonNull RefreshMetrics metrics);
+    }
+
+    /**
+     * Classes that wish to change how far the refresh indicator is moved during a swipe gesture
+     * should implement this interface.
+     *
+     * @see #setDragTensionCurve(DragTensionCurve)
+     */
+    public interface DragTensionCurve {
+        /**
+         * Called when parameters of the swipe gesture change, implementations may precompute
+         * the curve here.
+         *
+         * @param totalDragDistance Distance in pixels that should be dragged to trigger a refresh
+         * @param slingshotDistance Distance in pixels that the refresh indicator can be pulled
+         *                          beyond its resting position
+         */
+        void setDragParameters(float totalDragDistance, float slingshotDistance);
+
+        /**
+         * Called on every drag frame.
+         *
+         * @param overscrollTop Distance in pixels that was dragged
+         * @return Offset in pixels of the refresh indicator from its start position
+         */
+        float getSpinnerOffset(float overscrollTop);
+    }
+
+    /**
+     * Classes that wish to create progress views without reflection should implement this
+     * interface.
+     *
+     * @see #setDefaultProgressViewFactory(ProgressViewFactory)
+     * @see #setProgressViewFactory(ProgressViewFactory)
+     */
+    public interface ProgressViewFactory {
+        /**
+         * Creates progress view for the given class name.
+         *
+         * @param context   Context of CustomizableSwipeRefreshLayout
+         * @param className Value of progressViewClass attribute
+         * @return Progress view instance or null, if progress view should be created through
+         * reflection
+         */
+        @Nullable
+        BaseProgressView createProgressView(@NonNull Context context, @NonNull String className);
+    }
 }
@@ -0,0 +1,98 @@
+package com.arsvechkarev.swipetorefresh
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Color
+import android.graphics.Paint
+import android.graphics.PorterDuff
+import android.graphics.Rect
+import kotlin.math.ceil
+import kotlin.math.roundToInt
+import kotlin.math.sqrt
+
+/**
+ * Cache of frames of a drawing that depends only on progress from 0 to 1. Frames are rendered
+ * with [renderFrame] into a single bitmap atlas the first time they are needed, and then the
+ * nearest frame is drawn instead of the drawing itself. Atlas never takes more than
+ * [MAX_ATLAS_BYTES], so the number of frames is reduced for large views
+ */
+internal class FrameCache(
+    private val requestedFrameCount: Int,
+    private val renderFrame: (Canvas, Float) -> Unit
+) {
+
+    private var atlas: Bitmap? = null
+    private val atlasCanvas = Canvas()
+    private var renderedFrames = BooleanArray(0)
+    private var frameCount = 0
+    private var columns = 0
+    private var frameWidth = 0
+    private var frameHeight = 0
+
+    private val srcRect = Rect()
+    private val dstRect = Rect()
+    private val paint = Paint(Paint.FILTER_BITMAP_FLAG)
+
+    fun draw(canvas: Canvas, width: Int, height: Int, progress: Float) {
+        if (width <= 0 || height <= 0) {
+            return
+        }
+        if (width != frameWidth || height != frameHeight) {
+            createAtlas(width, height)
+        }
+        val atlas = atlas ?: run {
+            renderFrame(canvas, progress)
+            return
+        }
+        val frame = if (frameCount > 1) {
+            (progress.coerceIn(0f, 1f) * (frameCount - 1)).roundToInt()
+        } else {
+            0
+        }
+        val left = frame % columns * frameWidth
+        val top = frame / columns * frameHeight
+        srcRect.set(left, top, left + frameWidth, top + frameHeight)
+        if (!renderedFrames[frame]) {
+            renderedFrames[frame] = true
+            atlasCanvas.save()
+            atlasCanvas.clipRect(srcRect)
+            atlasCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR)
+            atlasCanvas.translate(left.toFloat(), top.toFloat())
+            renderFrame(atlasCanvas, if (frameCount > 1) frame / (frameCount - 1f) else progress)
+            atlasCanvas.restore()
+        }
+        dstRect.set(0, 0, frameWidth, frameHeight)
+        canvas.drawBitmap(atlas, srcRect, dstRect, paint)
+    }
+
+    fun release() {
+        atlasCanvas.setBitmap(null)
+        atlas?.recycle()
+        atlas = null
+        frameWidth = 0
+        frameHeight = 0
+    }
+
+    private fun createAtlas(width: Int, height: Int) {
+        release()
+        val maxFrames = (MAX_ATLAS_BYTES / (width.toLong() * height * BYTES_PER_PIXEL)).toInt()
+        frameCount = requestedFrameCount.coerceAtMost(maxFrames)
+        frameWidth = width
+        frameHeight = height
+        if (frameCount < 1) {
+            // View is too large to be cached at all
+            return
+        }
+        columns = ceil(sqrt(frameCount.toDouble())).toInt()
+        val rows = (frameCount + columns - 1) / columns
+        val bitmap = Bitmap.createBitmap(columns * width, rows * height, Bitmap.Config.ARGB_8888)
+        atlasCanvas.setBitmap(bitmap)
+        atlas = bitmap
+        renderedFrames = BooleanArray(frameCount)
+    }
+
+    private companion object {
+        const val MAX_ATLAS_BYTES = 4L * 1024 * 1024
+        const val BYTES_PER_PIXEL = 4
+    }
+}
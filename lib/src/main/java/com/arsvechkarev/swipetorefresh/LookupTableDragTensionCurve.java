@@ -0,0 +1,63 @@
+package com.arsvechkarev.swipetorefresh;
+
+/**
+ * Default {@link CustomizableSwipeRefreshLayout.DragTensionCurve} that works like the tension of
+ * the original SwipeRefreshLayout, but instead of computing the curve on every drag frame it
+ * samples the tension part of the curve into a lookup table once drag parameters change and then
+ * interpolates between the nearest samples. The part before the total drag distance is linear,
+ * so it is computed directly, which also keeps the kink between the two parts exact.
+ */
+final class LookupTableDragTensionCurve implements CustomizableSwipeRefreshLayout.DragTensionCurve {
+
+    private static final int TABLE_SIZE = 256;
+
+    // Extra move of the spinner past the total drag distance
+    private final float[] mExtraMoves = new float[TABLE_SIZE + 1];
+
+    private float mTotalDragDistance;
+
+    private float mSlingshotDistance;
+
+    // Extra drag distance at which the tension reaches its maximum, beyond that offset doesn't change
+    private float mMaxExtraDistance;
+
+    private float mSamplesPerPixel;
+
+    @Override
+    public void setDragParameters(float totalDragDistance, float slingshotDistance) {
+        mTotalDragDistance = totalDragDistance;
+        mSlingshotDistance = slingshotDistance;
+        mMaxExtraDistance = slingshotDistance * 2;
+        mSamplesPerPixel = mMaxExtraDistance > 0 ? TABLE_SIZE / mMaxExtraDistance : 0;
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            float extraOS = mMaxExtraDistance * i / TABLE_SIZE;
+            mExtraMoves[i] = computeExtraMove(extraOS, slingshotDistance);
+        }
+    }
+
+    @Override
+    public float getSpinnerOffset(float overscrollTop) {
+        float distance = Math.abs(overscrollTop);
+        if (distance <= mTotalDragDistance) {
+            return mTotalDragDistance > 0
+                    ? mSlingshotDistance * distance / mTotalDragDistance : mSlingshotDistance;
+        }
+        float extraOS = distance - mTotalDragDistance;
+        if (extraOS >= mMaxExtraDistance) {
+            return mSlingshotDistance + mExtraMoves[TABLE_SIZE];
+        }
+        float position = extraOS * mSamplesPerPixel;
+        int index = (int) position;
+        float fraction = position - index;
+        return mSlingshotDistance + mExtraMoves[index]
+                + (mExtraMoves[index + 1] - mExtraMoves[index]) * fraction;
+    }
+
+    private static float computeExtraMove(float extraOS, float slingshotDist) {
+        float tensionSlingshotPercent = Math.max(0, Math.min(extraOS, slingshotDist * 2)
+                / slingshotDist);
+        float tensionPercent = (float) ((tensionSlingshotPercent / 4) - Math.pow(
+                (tensionSlingshotPercent / 4), 2)) * 2f;
+        return slingshotDist * tensionPercent * 2;
+    }
+}
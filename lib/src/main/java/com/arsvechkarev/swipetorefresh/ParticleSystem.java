@@ -0,0 +1,206 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+
+/**
+ * Simple particle system that can be used by progress views for effects like sparks or dust.
+ * State of particles is kept in preallocated arrays of primitives, one array per property, so
+ * emitting, simulating and drawing particles never allocates memory. Particles are drawn with a
+ * few batched {@link Canvas#drawPoints(float[], int, int, Paint)} calls, one per alpha level,
+ * which makes thousands of particles per frame affordable.
+ * <p>
+ * Size and shape of particles are taken from the paint passed to {@link #draw(Canvas, Paint)},
+ * e.g. stroke width and {@link Paint.Cap#ROUND} for round particles.
+ *
+ * @see BaseProgressView
+ */
+public final class ParticleSystem {
+
+    // Number of distinct alpha values particles are drawn with
+    private static final int ALPHA_LEVELS = 16;
+
+    private final int mCapacity;
+
+    private final float[] mPositionX;
+    private final float[] mPositionY;
+    private final float[] mVelocityX;
+    private final float[] mVelocityY;
+    private final float[] mLife;
+    private final float[] mInitialLife;
+
+    // Coordinates of particles grouped by alpha level, prepared for drawPoints
+    private final float[] mPoints;
+    private final int[] mAlphaLevelOffsets = new int[ALPHA_LEVELS + 1];
+    private final byte[] mAlphaLevels;
+
+    private final Random mRandom = new Random();
+
+    private int mCount;
+
+    private float mGravityX;
+    private float mGravityY;
+
+    /**
+     * @param capacity Maximum number of particles that can be alive at the same time
+     */
+    public ParticleSystem(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive");
+        }
+        mCapacity = capacity;
+        mPositionX = new float[capacity];
+        mPositionY = new float[capacity];
+        mVelocityX = new float[capacity];
+        mVelocityY = new float[capacity];
+        mLife = new float[capacity];
+        mInitialLife = new float[capacity];
+        mPoints = new float[capacity * 2];
+        mAlphaLevels = new byte[capacity];
+    }
+
+    /**
+     * Sets acceleration that is applied to all particles.
+     *
+     * @param x Horizontal acceleration in pixels per second squared
+     * @param y Vertical acceleration in pixels per second squared
+     */
+    public void setGravity(float x, float y) {
+        mGravityX = x;
+        mGravityY = y;
+    }
+
+    /**
+     * @return Number of alive particles
+     */
+    public int getParticleCount() {
+        return mCount;
+    }
+
+    /**
+     * Emits a particle.
+     *
+     * @param x           Horizontal position in pixels
+     * @param y           Vertical position in pixels
+     * @param velocityX   Horizontal velocity in pixels per second
+     * @param velocityY   Vertical velocity in pixels per second
+     * @param lifeSeconds Time in seconds until the particle disappears, it fades out meanwhile
+     * @return Whether the particle was emitted, which is not the case if capacity is exceeded
+     */
+    public boolean emit(float x, float y, float velocityX, float velocityY, float lifeSeconds) {
+        if (mCount == mCapacity || lifeSeconds <= 0) {
+            return false;
+        }
+        int i = mCount++;
+        mPositionX[i] = x;
+        mPositionY[i] = y;
+        mVelocityX[i] = velocityX;
+        mVelocityY[i] = velocityY;
+        mLife[i] = lifeSeconds;
+        mInitialLife[i] = lifeSeconds;
+        return true;
+    }
+
+    /**
+     * Emits particles from the same point in random directions.
+     *
+     * @param count       Number of particles to emit
+     * @param x           Horizontal position in pixels
+     * @param y           Vertical position in pixels
+     * @param minSpeed    Minimum speed in pixels per second
+     * @param maxSpeed    Maximum speed in pixels per second
+     * @param lifeSeconds Maximum time in seconds until a particle disappears
+     */
+    public void emitBurst(int count, float x, float y, float minSpeed, float maxSpeed,
+                          float lifeSeconds) {
+        for (int i = 0; i < count; i++) {
+            double angle = mRandom.nextDouble() * 2 * Math.PI;
+            float speed = minSpeed + (maxSpeed - minSpeed) * mRandom.nextFloat();
+            float life = lifeSeconds * (0.5f + 0.5f * mRandom.nextFloat());
+            if (!emit(x, y, (float) Math.cos(angle) * speed, (float) Math.sin(angle) * speed,
+                    life)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves particles and removes the ones whose life is over.
+     *
+     * @param deltaSeconds Time in seconds since the previous update
+     */
+    public void update(float deltaSeconds) {
+        int i = 0;
+        while (i < mCount) {
+            float life = mLife[i] - deltaSeconds;
+            if (life <= 0) {
+                // Replace the dead particle with the last one
+                int last = --mCount;
+                mPositionX[i] = mPositionX[last];
+                mPositionY[i] = mPositionY[last];
+                mVelocityX[i] = mVelocityX[last];
+                mVelocityY[i] = mVelocityY[last];
+                mLife[i] = mLife[last];
+                mInitialLife[i] = mInitialLife[last];
+                continue;
+            }
+            mLife[i] = life;
+            mVelocityX[i] += mGravityX * deltaSeconds;
+            mVelocityY[i] += mGravityY * deltaSeconds;
+            mPositionX[i] += mVelocityX[i] * deltaSeconds;
+            mPositionY[i] += mVelocityY[i] * deltaSeconds;
+            i++;
+        }
+    }
+
+    /**
+     * Draws alive particles. Alpha of the paint is multiplied by the remaining life of each
+     * particle, and it is restored after drawing.
+     */
+    public void draw(@NonNull Canvas canvas, @NonNull Paint paint) {
+        if (mCount == 0) {
+            return;
+        }
+        // Counting sort of particles by alpha level, so that each level is drawn in one call
+        int[] offsets = mAlphaLevelOffsets;
+        for (int level = 0; level <= ALPHA_LEVELS; level++) {
+            offsets[level] = 0;
+        }
+        for (int i = 0; i < mCount; i++) {
+            int level = (int) (mLife[i] / mInitialLife[i] * (ALPHA_LEVELS - 1) + 0.5f);
+            mAlphaLevels[i] = (byte) level;
+            offsets[level + 1]++;
+        }
+        for (int level = 0; level < ALPHA_LEVELS; level++) {
+            offsets[level + 1] += offsets[level];
+        }
+        for (int i = 0; i < mCount; i++) {
+            int index = offsets[mAlphaLevels[i]]++;
+            mPoints[index * 2] = mPositionX[i];
+            mPoints[index * 2 + 1] = mPositionY[i];
+        }
+        // Offsets were advanced to the ends of levels, so each level starts at the previous end
+        int alpha = paint.getAlpha();
+        int start = 0;
+        for (int level = 0; level < ALPHA_LEVELS; level++) {
+            int end = offsets[level];
+            if (end > start) {
+                paint.setAlpha(alpha * (level + 1) / ALPHA_LEVELS);
+                canvas.drawPoints(mPoints, start * 2, (end - start) * 2, paint);
+            }
+            start = end;
+        }
+        paint.setAlpha(alpha);
+    }
+
+    /**
+     * Removes all particles.
+     */
+    public void clear() {
+        mCount = 0;
+    }
+}
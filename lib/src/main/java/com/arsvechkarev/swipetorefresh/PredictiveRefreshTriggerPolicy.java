@@ -0,0 +1,37 @@
+package com.arsvechkarev.swipetorefresh;
+
+/**
+ * {@link CustomizableSwipeRefreshLayout.RefreshTriggerPolicy} that triggers a refresh not only
+ * when the refresh indicator is released past the threshold, but also when it is released with a
+ * velocity that would carry it past the threshold under constant deceleration. This lets fast
+ * short pulls trigger a refresh without dragging the full distance.
+ */
+final class PredictiveRefreshTriggerPolicy implements
+        CustomizableSwipeRefreshLayout.RefreshTriggerPolicy {
+
+    // Part of the drag distance that should be dragged anyway, so that accidental flicks don't
+    // trigger a refresh
+    private static final float MIN_DRAG_FRACTION = 0.5f;
+
+    private final float mDeceleration;
+
+    /**
+     * @param deceleration Deceleration of the released indicator in pixels per second squared
+     */
+    PredictiveRefreshTriggerPolicy(float deceleration) {
+        mDeceleration = deceleration;
+    }
+
+    @Override
+    public boolean shouldTriggerRefresh(float overscrollTop, float velocity,
+                                        float totalDragDistance) {
+        if (overscrollTop > totalDragDistance) {
+            return true;
+        }
+        if (velocity <= 0 || overscrollTop < totalDragDistance * MIN_DRAG_FRACTION) {
+            return false;
+        }
+        float projectedOverscrollTop = overscrollTop + velocity * velocity / (2 * mDeceleration);
+        return projectedOverscrollTop > totalDragDistance;
+    }
+}
@@ -0,0 +1,142 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+import android.util.TypedValue;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Px;
+
+/**
+ * Process-wide cache of bitmaps used by progress views. Bitmaps are decoded from resources
+ * right at the size they are drawn with, so that all instances of a progress view share one
+ * small bitmap instead of decoding a full-size one each. Least recently used bitmaps are evicted
+ * once the total size of the cache exceeds its maximum size. Bitmaps are cached per resource file
+ * the id resolves to, so variants of a resource for different configurations, such as night mode
+ * or screen density, are cached separately.
+ * <p>
+ * Bitmaps returned from the cache are shared, so they should never be modified or recycled.
+ *
+ * @see BaseProgressView#getCachedBitmap(int, int, int)
+ */
+public final class ProgressBitmapCache {
+
+    private static final int DEFAULT_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private static final LruCache<String, Bitmap> sCache =
+            new LruCache<String, Bitmap>(DEFAULT_MAX_SIZE_BYTES) {
+                @Override
+                protected int sizeOf(String key, Bitmap value) {
+                    return value.getAllocationByteCount();
+                }
+            };
+
+    private ProgressBitmapCache() {
+    }
+
+    /**
+     * Returns a bitmap of the resource that fits into the given size with its aspect ratio
+     * preserved, decoding it if it is not in the cache yet. Density of the bitmap is set to the
+     * density of the display, so that it is drawn without scaling.
+     *
+     * @param resources Resources to decode the bitmap from
+     * @param resId     Id of a bitmap resource, such as PNG or JPEG
+     * @param width     Maximum width of the bitmap in pixels
+     * @param height    Maximum height of the bitmap in pixels
+     * @return Shared bitmap that should not be modified or recycled
+     * @throws IllegalArgumentException If the resource can't be decoded as a bitmap
+     */
+    @NonNull
+    public static Bitmap getBitmap(@NonNull Resources resources, @DrawableRes int resId,
+                                   @Px int width, @Px int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Bitmap size should be positive");
+        }
+        int densityDpi = resources.getDisplayMetrics().densityDpi;
+        String key = getKey(resources, resId, densityDpi, width, height);
+        Bitmap bitmap = sCache.get(key);
+        if (bitmap == null) {
+            bitmap = decodeBitmap(resources, resId, densityDpi, width, height);
+            sCache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private static String getKey(Resources resources, int resId, int densityDpi, int width,
+                                 int height) {
+        // Path of the file the id resolves to in the current configuration, for example
+        // res/drawable-night-xhdpi/image.png. Several densities can resolve to the same file,
+        // and cached bitmaps can't be modified, so the density is a part of the key as well
+        TypedValue value = new TypedValue();
+        resources.getValue(resId, value, true);
+        return resId + ":" + value.string + ":" + densityDpi + ":" + width + "x" + height;
+    }
+
+    /**
+     * Sets the maximum total size of cached bitmaps, evicting bitmaps if needed. The default is
+     * 4 MB.
+     *
+     * @param maxSizeBytes Maximum size in bytes
+     */
+    public static void setMaxSize(int maxSizeBytes) {
+        sCache.resize(maxSizeBytes);
+    }
+
+    /**
+     * Removes all bitmaps from the cache.
+     */
+    public static void evictAll() {
+        sCache.evictAll();
+    }
+
+    /**
+     * @return Number of times a requested bitmap was found in the cache
+     */
+    public static int getHitCount() {
+        return sCache.hitCount();
+    }
+
+    /**
+     * @return Number of times a requested bitmap had to be decoded
+     */
+    public static int getMissCount() {
+        return sCache.missCount();
+    }
+
+    @NonNull
+    private static Bitmap decodeBitmap(Resources resources, int resId, int densityDpi, int width,
+                                       int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(resources, resId, options);
+        int sourceWidth = options.outWidth;
+        int sourceHeight = options.outHeight;
+        if (sourceWidth <= 0 || sourceHeight <= 0) {
+            throw new IllegalArgumentException("Resource " + resId + " is not a bitmap");
+        }
+        float scale = Math.min((float) width / sourceWidth, (float) height / sourceHeight);
+        int targetWidth = Math.max(1, Math.round(sourceWidth * scale));
+        int sampleSize = 1;
+        while (sourceWidth / (sampleSize * 2) >= targetWidth) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        // Scale the rest of the way with density scaling, the ratio of densities is applied to
+        // the sampled width, so the result is exactly targetWidth wide
+        options.inScaled = true;
+        options.inDensity = sourceWidth;
+        options.inTargetDensity = targetWidth * sampleSize;
+        Bitmap bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        if (bitmap == null) {
+            throw new IllegalArgumentException("Resource " + resId + " is not a bitmap");
+        }
+        // Set before the bitmap is shared, so it is drawn without scaling on this display
+        bitmap.setDensity(densityDpi);
+        return bitmap;
+    }
+}
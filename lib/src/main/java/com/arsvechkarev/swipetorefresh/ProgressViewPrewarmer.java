@@ -0,0 +1,257 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates progress views ahead of time, so that expensive setup in their constructors doesn't
+ * slow down inflation of {@link CustomizableSwipeRefreshLayout}. Prewarmed instances are kept
+ * until a layout with the same progressViewClass and the same context takes one of them when it
+ * creates its progress view. If there is no such instance, the layout creates the progress view
+ * by itself as usual. Layouts that have their own
+ * {@link CustomizableSwipeRefreshLayout#setProgressViewFactory(CustomizableSwipeRefreshLayout.ProgressViewFactory)
+ * factory} never take prewarmed instances, while prewarmed instances are created with the
+ * {@link CustomizableSwipeRefreshLayout#setDefaultProgressViewFactory(CustomizableSwipeRefreshLayout.ProgressViewFactory)
+ * default factory} if it is set.
+ * <p>
+ * Prewarmed instances hold the context they were created with, so they should be created with
+ * the context of the screen that is going to be inflated. Instances left unused are dropped when
+ * the activity of their context is destroyed. Instances created with other contexts can be
+ * dropped with {@link #clear(Context)}.
+ * <p>
+ * If a progress view fails to be created ahead of time, the failure is logged and the layout
+ * creates the progress view by itself later.
+ */
+public final class ProgressViewPrewarmer {
+
+    private static final String LOG_TAG = ProgressViewPrewarmer.class.getSimpleName();
+
+    // Prewarmed instances by class name, guarded by itself
+    private static final Map<String, ArrayDeque<BaseProgressView>> sInstances = new HashMap<>();
+
+    // Whether sActivityCallbacks are registered, guarded by sInstances
+    private static boolean sActivityCallbacksRegistered;
+
+    // Drops instances of destroyed activities, so that the activities are not leaked
+    private static final Application.ActivityLifecycleCallbacks sActivityCallbacks =
+            new Application.ActivityLifecycleCallbacks() {
+                @Override
+                public void onActivityCreated(@NonNull Activity activity,
+                                              @Nullable Bundle savedInstanceState) {
+                }
+
+                @Override
+                public void onActivityStarted(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivityResumed(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivityPaused(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivityStopped(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivitySaveInstanceState(@NonNull Activity activity,
+                                                        @NonNull Bundle outState) {
+                }
+
+                @Override
+                public void onActivityDestroyed(@NonNull Activity activity) {
+                    clear(activity);
+                }
+            };
+
+    private ProgressViewPrewarmer() {
+    }
+
+    /**
+     * Creates progress views on the given executor. Progress views that need a Looper in their
+     * constructor, e.g. to create a Handler, should be prewarmed with
+     * {@link #prewarmWhenIdle(Context, String, int)} instead.
+     *
+     * @param context   Context that layouts are going to be inflated with
+     * @param className Full class name of the progress view, same as progressViewClass attribute
+     * @param count     Number of instances to create
+     * @param executor  Executor that creates instances, usually a background one
+     */
+    public static void prewarm(@NonNull final Context context, @NonNull final String className,
+                               final int count, @NonNull Executor executor) {
+        checkCount(count);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    if (!create(context, className)) {
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates progress views on the current thread when its message queue becomes idle, one
+     * instance per idle period, so that creation doesn't delay other messages.
+     *
+     * @param context   Context that layouts are going to be inflated with
+     * @param className Full class name of the progress view, same as progressViewClass attribute
+     * @param count     Number of instances to create
+     */
+    @MainThread
+    public static void prewarmWhenIdle(@NonNull final Context context,
+                                       @NonNull final String className, final int count) {
+        checkCount(count);
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+
+            private int mRemaining = count;
+
+            @Override
+            public boolean queueIdle() {
+                if (!create(context, className)) {
+                    return false;
+                }
+                mRemaining--;
+                return mRemaining > 0;
+            }
+        });
+    }
+
+    /**
+     * Drops prewarmed instances that were created with the given context or with a context that
+     * wraps it.
+     */
+    public static void clear(@NonNull Context context) {
+        synchronized (sInstances) {
+            Iterator<ArrayDeque<BaseProgressView>> iterator = sInstances.values().iterator();
+            while (iterator.hasNext()) {
+                ArrayDeque<BaseProgressView> instances = iterator.next();
+                Iterator<BaseProgressView> instanceIterator = instances.iterator();
+                while (instanceIterator.hasNext()) {
+                    if (wraps(instanceIterator.next().getContext(), context)) {
+                        instanceIterator.remove();
+                    }
+                }
+                if (instances.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all prewarmed instances.
+     */
+    public static void clear() {
+        synchronized (sInstances) {
+            sInstances.clear();
+        }
+    }
+
+    /**
+     * Takes prewarmed instance of the class that was created with the given context.
+     *
+     * @return Prewarmed instance or null, if there is no such instance
+     */
+    @Nullable
+    static BaseProgressView obtain(@NonNull Context context, @NonNull String className) {
+        synchronized (sInstances) {
+            ArrayDeque<BaseProgressView> instances = sInstances.get(className);
+            if (instances == null) {
+                return null;
+            }
+            Iterator<BaseProgressView> iterator = instances.iterator();
+            while (iterator.hasNext()) {
+                BaseProgressView progressView = iterator.next();
+                if (progressView.getContext() == context) {
+                    iterator.remove();
+                    if (instances.isEmpty()) {
+                        sInstances.remove(className);
+                    }
+                    return progressView;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return Whether the instance was created, prewarming should stop otherwise
+     */
+    private static boolean create(Context context, String className) {
+        BaseProgressView progressView;
+        try {
+            progressView = CustomizableSwipeRefreshLayout.newDefaultProgressView(context,
+                    className);
+        } catch (RuntimeException e) {
+            Log.e(LOG_TAG, "Could not prewarm " + className, e);
+            return false;
+        }
+        add(className, progressView);
+        return true;
+    }
+
+    private static void add(String className, BaseProgressView progressView) {
+        synchronized (sInstances) {
+            ArrayDeque<BaseProgressView> instances = sInstances.get(className);
+            if (instances == null) {
+                instances = new ArrayDeque<>();
+                sInstances.put(className, instances);
+            }
+            instances.add(progressView);
+            if (!sActivityCallbacksRegistered) {
+                Activity activity = findActivity(progressView.getContext());
+                Application application = activity != null ? activity.getApplication() : null;
+                if (application != null) {
+                    application.registerActivityLifecycleCallbacks(sActivityCallbacks);
+                    sActivityCallbacksRegistered = true;
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Activity findActivity(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return (Activity) context;
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    private static boolean wraps(Context context, Context base) {
+        while (context != base && context instanceof ContextWrapper) {
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return context == base;
+    }
+
+    private static void checkCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count should be positive");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.arsvechkarev.swipetorefresh;
+
+/**
+ * Timing statistics of a single pull-to-refresh gesture of {@link CustomizableSwipeRefreshLayout}.
+ * Instance of this class is reused between gestures, so values should be copied if they are
+ * needed after {@link CustomizableSwipeRefreshLayout.RefreshMetricsListener} returns.
+ *
+ * @see CustomizableSwipeRefreshLayout#setRefreshMetricsListener
+ */
+public final class RefreshMetrics {
+
+    /**
+     * Value of durations that were not measured during the gesture, for example time to refresh
+     * when the gesture was cancelled.
+     */
+    public static final long NOT_MEASURED = -1;
+
+    // Upper bounds in milliseconds of frame duration buckets, the last bucket holds all frames
+    // that are longer than the last bound
+    private static final int[] FRAME_DURATION_BUCKET_BOUNDS_MS = {8, 12, 17, 25, 34, 50, 100};
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final int[] mFrameDurationBuckets = new int[FRAME_DURATION_BUCKET_BOUNDS_MS.length + 1];
+
+    private int mDragFrames;
+    private int mDroppedFrames;
+    private long mMoveSpinnerNanos;
+    private long mReleaseToRefreshNanos = NOT_MEASURED;
+    private long mStopToResetNanos = NOT_MEASURED;
+
+    /**
+     * @return Number of frames that were drawn while progress view was being dragged
+     */
+    public int getDragFrames() {
+        return mDragFrames;
+    }
+
+    /**
+     * @return Number of frames that were skipped while progress view was being dragged
+     */
+    public int getDroppedFrames() {
+        return mDroppedFrames;
+    }
+
+    /**
+     * @return Total time in nanoseconds spent in moving the progress view during the drag
+     */
+    public long getMoveSpinnerNanos() {
+        return mMoveSpinnerNanos;
+    }
+
+    /**
+     * @return Time in nanoseconds from release of the finger to the call of
+     * {@link CustomizableSwipeRefreshLayout.OnRefreshListener#onRefresh()}, or
+     * {@link #NOT_MEASURED} if refresh was not triggered
+     */
+    public long getReleaseToRefreshNanos() {
+        return mReleaseToRefreshNanos;
+    }
+
+    /**
+     * @return Time in nanoseconds from {@code setRefreshing(false)} to the moment when the
+     * progress view was hidden, or {@link #NOT_MEASURED} if refresh was not triggered
+     */
+    public long getStopToResetNanos() {
+        return mStopToResetNanos;
+    }
+
+    /**
+     * @return Number of histogram buckets of drag frame durations
+     */
+    public int getFrameDurationBucketCount() {
+        return mFrameDurationBuckets.length;
+    }
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Upper bound in milliseconds of frame durations in the bucket, or
+     * {@link Integer#MAX_VALUE} for the last bucket
+     */
+    public int getFrameDurationBucketBoundMs(int bucket) {
+        return bucket < FRAME_DURATION_BUCKET_BOUNDS_MS.length
+                ? FRAME_DURATION_BUCKET_BOUNDS_MS[bucket]
+                : Integer.MAX_VALUE;
+    }
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Number of drag frames which durations fall into the bucket
+     */
+    public int getFrameCountInBucket(int bucket) {
+        return mFrameDurationBuckets[bucket];
+    }
+
+    void recordFrame(long frameDurationNanos, long frameIntervalNanos) {
+        mDragFrames++;
+        if (frameIntervalNanos > 0) {
+            long missedFrames = (frameDurationNanos + frameIntervalNanos / 2) / frameIntervalNanos - 1;
+            if (missedFrames > 0) {
+                mDroppedFrames += (int) missedFrames;
+            }
+        }
+        long durationMs = frameDurationNanos / NANOS_PER_MILLI;
+        int bucket = 0;
+        while (bucket < FRAME_DURATION_BUCKET_BOUNDS_MS.length
+                && durationMs > FRAME_DURATION_BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        mFrameDurationBuckets[bucket]++;
+    }
+
+    void addMoveSpinnerNanos(long nanos) {
+        mMoveSpinnerNanos += nanos;
+    }
+
+    void setReleaseToRefreshNanos(long nanos) {
+        mReleaseToRefreshNanos = nanos;
+    }
+
+    void setStopToResetNanos(long nanos) {
+        mStopToResetNanos = nanos;
+    }
+
+    void clear() {
+        mDragFrames = 0;
+        mDroppedFrames = 0;
+        mMoveSpinnerNanos = 0;
+        mReleaseToRefreshNanos = NOT_MEASURED;
+        mStopToResetNanos = NOT_MEASURED;
+        for (int i = 0; i < mFrameDurationBuckets.length; i++) {
+            mFrameDurationBuckets[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.arsvechkarev.swipetorefresh;
+
+/**
+ * Damped harmonic oscillator that is used to animate progress view with physics instead of
+ * fixed duration. It works like SpringForce from androidx.dynamicanimation: values are computed
+ * with the analytical solution of the spring equation, so the result doesn't depend on the frame
+ * rate, and animation can be retargeted in the middle without losing its velocity.
+ */
+final class SpringSimulation {
+
+    // Displacement in pixels at which the spring is considered to be at rest
+    private static final float VALUE_THRESHOLD = 0.5f;
+
+    // Velocity in pixels per second at which the spring is considered to be at rest
+    private static final float VELOCITY_THRESHOLD = VALUE_THRESHOLD * 62.5f;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private double mNaturalFreq;
+
+    private double mDampingRatio;
+
+    private float mValue;
+
+    private float mVelocity;
+
+    private float mFinalPosition;
+
+    SpringSimulation(float stiffness, float dampingRatio) {
+        setStiffness(stiffness);
+        setDampingRatio(dampingRatio);
+    }
+
+    void setStiffness(float stiffness) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("Spring stiffness should be greater than 0");
+        }
+        mNaturalFreq = Math.sqrt(stiffness);
+    }
+
+    void setDampingRatio(float dampingRatio) {
+        if (dampingRatio <= 0) {
+            // Undamped spring never comes to rest
+            throw new IllegalArgumentException("Damping ratio should be greater than 0");
+        }
+        mDampingRatio = dampingRatio;
+    }
+
+    /**
+     * Starts the simulation from the given state.
+     *
+     * @param value         Current value
+     * @param velocity      Current velocity in units per second
+     * @param finalPosition Value at which the spring comes to rest
+     */
+    void start(float value, float velocity, float finalPosition) {
+        mValue = value;
+        mVelocity = velocity;
+        mFinalPosition = finalPosition;
+    }
+
+    float getValue() {
+        return mValue;
+    }
+
+    float getVelocity() {
+        return mVelocity;
+    }
+
+    float getFinalPosition() {
+        return mFinalPosition;
+    }
+
+    /**
+     * Advances the simulation.
+     *
+     * @param deltaNanos Time elapsed since the previous update
+     * @return Whether the spring came to rest, in which case its value is equal to final position
+     */
+    boolean update(long deltaNanos) {
+        double t = deltaNanos / NANOS_PER_SECOND;
+        double displacement = mValue - mFinalPosition;
+        double w0 = mNaturalFreq;
+        double zeta = mDampingRatio;
+        double newDisplacement;
+        double newVelocity;
+        if (zeta > 1) {
+            // Overdamped
+            double root = w0 * Math.sqrt(zeta * zeta - 1);
+            double gammaPlus = -zeta * w0 + root;
+            double gammaMinus = -zeta * w0 - root;
+            double coeffB = (gammaMinus * displacement - mVelocity) / (gammaMinus - gammaPlus);
+            double coeffA = displacement - coeffB;
+            double expMinus = Math.exp(gammaMinus * t);
+            double expPlus = Math.exp(gammaPlus * t);
+            newDisplacement = coeffA * expMinus + coeffB * expPlus;
+            newVelocity = coeffA * gammaMinus * expMinus + coeffB * gammaPlus * expPlus;
+        } else if (zeta == 1) {
+            // Critically damped
+            double coeffA = displacement;
+            double coeffB = mVelocity + w0 * displacement;
+            double exp = Math.exp(-w0 * t);
+            newDisplacement = (coeffA + coeffB * t) * exp;
+            newVelocity = (coeffA + coeffB * t) * exp * -w0 + coeffB * exp;
+        } else {
+            // Underdamped
+            double dampedFreq = w0 * Math.sqrt(1 - zeta * zeta);
+            double cosCoeff = displacement;
+            double sinCoeff = (zeta * w0 * displacement + mVelocity) / dampedFreq;
+            double exp = Math.exp(-zeta * w0 * t);
+            double cos = Math.cos(dampedFreq * t);
+            double sin = Math.sin(dampedFreq * t);
+            newDisplacement = exp * (cosCoeff * cos + sinCoeff * sin);
+            newVelocity = newDisplacement * -w0 * zeta
+                    + exp * (-dampedFreq * cosCoeff * sin + dampedFreq * sinCoeff * cos);
+        }
+        mValue = (float) (newDisplacement + mFinalPosition);
+        mVelocity = (float) newVelocity;
+        if (Math.abs(newDisplacement) < VALUE_THRESHOLD
+                && Math.abs(newVelocity) < VELOCITY_THRESHOLD) {
+            mValue = mFinalPosition;
+            mVelocity = 0;
+            return true;
+        }
+        return false;
+    }
+}
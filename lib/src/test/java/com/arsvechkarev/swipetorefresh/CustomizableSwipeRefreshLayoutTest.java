@@ -0,0 +1,395 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class CustomizableSwipeRefreshLayoutTest {
+
+    // Distance far enough past the refresh threshold
+    private static final int DRAG_DISTANCE = 1000;
+
+    private static final int LAYOUT_WIDTH = 500;
+
+    private static final int LAYOUT_HEIGHT = 2000;
+
+    private static final int FRAME_INTERVAL_MILLIS = 16;
+
+    private Context mContext;
+    private CustomizableSwipeRefreshLayout mLayout;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+        mLayout = new CustomizableSwipeRefreshLayout(mContext, createAttributes(false));
+    }
+
+    @After
+    public void tearDown() {
+        CustomizableSwipeRefreshLayout.setDefaultProgressViewFactory(null);
+    }
+
+    @Test
+    public void targetIsReplacedWhenItIsRemoved() {
+        View first = new ScrollableView(mContext, true);
+        mLayout.addView(first);
+        assertTrue(mLayout.canChildScrollUp());
+
+        mLayout.removeView(first);
+        mLayout.addView(new ScrollableView(mContext, false));
+        assertFalse(mLayout.canChildScrollUp());
+    }
+
+    @Test
+    public void targetIsReplacedWhenSeveralChildrenAreRemoved() {
+        mLayout.addView(new ScrollableView(mContext, true));
+        mLayout.addView(new ScrollableView(mContext, true));
+        assertTrue(mLayout.canChildScrollUp());
+
+        // Removed views are still children while they are dispatched to onViewRemoved
+        mLayout.removeViews(mLayout.getChildCount() - 2, 2);
+        mLayout.addView(new ScrollableView(mContext, false));
+        assertFalse(mLayout.canChildScrollUp());
+    }
+
+    @Test
+    public void progressViewIsDrawnLastAfterChildrenChange() {
+        mLayout.addView(new ScrollableView(mContext, false));
+        // Move the progress view away from the first index and back
+        mLayout.addView(new View(mContext), 0);
+        mLayout.removeViews(0, 1);
+
+        int childCount = mLayout.getChildCount();
+        int progressViewIndex = mLayout.indexOfChild(findProgressView());
+        assertEquals(progressViewIndex, mLayout.getChildDrawingOrder(childCount, childCount - 1));
+    }
+
+    @Test
+    public void defaultFactoryCreatesProgressView() {
+        CustomizableSwipeRefreshLayout.setDefaultProgressViewFactory(new TestFactory());
+        mLayout = new CustomizableSwipeRefreshLayout(mContext, createAttributes(false));
+
+        assertTrue(findProgressView() instanceof FactoryProgressView);
+    }
+
+    @Test
+    public void progressViewIsCreatedWithReflectionWhenFactoryReturnsNull() {
+        CustomizableSwipeRefreshLayout.setDefaultProgressViewFactory(
+                new CustomizableSwipeRefreshLayout.ProgressViewFactory() {
+                    @Nullable
+                    @Override
+                    public BaseProgressView createProgressView(@NonNull Context context,
+                                                               @NonNull String className) {
+                        return null;
+                    }
+                });
+        mLayout = new CustomizableSwipeRefreshLayout(mContext, createAttributes(false));
+
+        assertEquals(TestProgressView.class, findProgressView().getClass());
+    }
+
+    @Test
+    public void layoutFactoryCreatesLazyProgressView() {
+        CustomizableSwipeRefreshLayout.setDefaultProgressViewFactory(
+                new CustomizableSwipeRefreshLayout.ProgressViewFactory() {
+                    @Nullable
+                    @Override
+                    public BaseProgressView createProgressView(@NonNull Context context,
+                                                               @NonNull String className) {
+                        throw new AssertionError("Layout factory should take precedence");
+                    }
+                });
+        mLayout = new CustomizableSwipeRefreshLayout(mContext, createAttributes(true));
+        TestFactory factory = new TestFactory();
+        mLayout.setProgressViewFactory(factory);
+
+        mLayout.setRefreshing(true);
+
+        assertTrue(findProgressView() instanceof FactoryProgressView);
+        assertEquals(TestProgressView.class.getName(), factory.mClassName);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void layoutFactoryCantBeSetAfterProgressViewIsCreated() {
+        mLayout.setProgressViewFactory(new TestFactory());
+    }
+
+    @Test
+    public void refreshStoppedBeforeReleaseIsNotShown() {
+        final CountingRefreshListener listener = new CountingRefreshListener() {
+            @Override
+            public void onRefresh() {
+                super.onRefresh();
+                mLayout.setRefreshing(false);
+            }
+        };
+        prepareForDrag(listener);
+
+        dispatchTouch(MotionEvent.ACTION_DOWN, 0);
+        dispatchTouch(MotionEvent.ACTION_MOVE, DRAG_DISTANCE);
+        assertEquals(1, listener.mRefreshCount);
+        dispatchTouch(MotionEvent.ACTION_UP, DRAG_DISTANCE);
+
+        assertFalse(mLayout.isRefreshing());
+    }
+
+    @Test
+    public void dispatchedRefreshIsShownWhenGestureIsCancelled() {
+        CountingRefreshListener listener = new CountingRefreshListener();
+        prepareForDrag(listener);
+
+        dispatchTouch(MotionEvent.ACTION_DOWN, 0);
+        dispatchTouch(MotionEvent.ACTION_MOVE, DRAG_DISTANCE);
+        dispatchTouch(MotionEvent.ACTION_CANCEL, DRAG_DISTANCE);
+
+        assertEquals(1, listener.mRefreshCount);
+        assertTrue(mLayout.isRefreshing());
+    }
+
+    @Test
+    public void dispatchedRefreshIsShownWhenNestedScrollReturnsToStart() {
+        CountingRefreshListener listener = new CountingRefreshListener();
+        prepareForDrag(listener);
+        View target = mLayout.getChildAt(mLayout.getChildCount() - 1);
+
+        mLayout.onNestedScrollAccepted(target, target, ViewCompat.SCROLL_AXIS_VERTICAL);
+        mLayout.onNestedScroll(target, 0, 0, 0, -DRAG_DISTANCE);
+        assertEquals(1, listener.mRefreshCount);
+        mLayout.onNestedPreScroll(target, 0, DRAG_DISTANCE, new int[2]);
+        mLayout.onStopNestedScroll(target);
+
+        assertTrue(mLayout.isRefreshing());
+    }
+
+    @Test
+    public void metricsAreReportedWhenNestedScrollReturnsToStart() {
+        final int[] reportCount = new int[1];
+        mLayout.setRefreshMetricsListener(
+                new CustomizableSwipeRefreshLayout.RefreshMetricsListener() {
+                    @Override
+                    public void onRefreshGestureMetrics(RefreshMetrics metrics) {
+                        reportCount[0]++;
+                    }
+                });
+        prepareForDrag(new CountingRefreshListener());
+        View target = mLayout.getChildAt(mLayout.getChildCount() - 1);
+
+        mLayout.onNestedScrollAccepted(target, target, ViewCompat.SCROLL_AXIS_VERTICAL);
+        mLayout.onNestedScroll(target, 0, 0, 0, -1);
+        mLayout.onNestedPreScroll(target, 0, 1, new int[2]);
+        mLayout.onStopNestedScroll(target);
+
+        // Measurement of drag frames stops together with the gesture
+        assertEquals(1, reportCount[0]);
+    }
+
+    @Test
+    public void draggingDoesNotRequestLayout() {
+        LayoutCountingView target = new LayoutCountingView(mContext);
+        new FrameLayout(mContext).addView(mLayout);
+        mLayout.addView(target);
+        layOut();
+        dispatchTouch(MotionEvent.ACTION_DOWN, 0);
+        // Progress view becomes visible on the first move, which needs a layout pass
+        dispatchTouch(MotionEvent.ACTION_MOVE, 100);
+        layOut();
+        target.mRequestLayoutCount = 0;
+
+        for (int y = 110; y <= DRAG_DISTANCE; y += 10) {
+            dispatchTouch(MotionEvent.ACTION_MOVE, y);
+            assertFalse(mLayout.isLayoutRequested());
+        }
+        assertEquals(0, target.mRequestLayoutCount);
+    }
+
+    @Test
+    public void progressViewDoesNotSpinWhileLayoutIsHidden() {
+        showInActivity();
+        pullToRefresh();
+        View progressView = findProgressView();
+        assertNotEquals(0f, progressView.getRotation(), 0f);
+
+        mLayout.setVisibility(View.INVISIBLE);
+        float rotation = progressView.getRotation();
+        runFrames(10);
+        // No frame callbacks run while the layout is hidden, so rotation doesn't change
+        assertEquals(rotation, progressView.getRotation(), 0f);
+
+        mLayout.setVisibility(View.VISIBLE);
+        runFrames(10);
+        assertNotEquals(rotation, progressView.getRotation(), 0f);
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.M)
+    public void lazyProgressViewSpinsWhenLayoutIsShownBeforeItIsCreated() {
+        mLayout = new CustomizableSwipeRefreshLayout(mContext, createAttributes(true));
+        mLayout.setVisibility(View.INVISIBLE);
+        showInActivity();
+        // Progress view is not created yet, but the layout still has to track its visibility
+        mLayout.setVisibility(View.VISIBLE);
+
+        pullToRefresh();
+
+        assertNotEquals(0f, findProgressView().getRotation(), 0f);
+    }
+
+    private void showInActivity() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mLayout.addView(new ScrollableView(mContext, false));
+        activity.setContentView(mLayout);
+        showWindow(activity);
+        // Otherwise frames run back to back, and idling never ends while the view spins
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_INTERVAL_MILLIS);
+    }
+
+    private void pullToRefresh() {
+        dispatchTouch(MotionEvent.ACTION_DOWN, 0);
+        dispatchTouch(MotionEvent.ACTION_MOVE, DRAG_DISTANCE);
+        dispatchTouch(MotionEvent.ACTION_UP, DRAG_DISTANCE);
+        runFrames(100);
+        assertTrue(mLayout.isRefreshing());
+    }
+
+    private static void showWindow(Activity activity) {
+        // Robolectric has no window manager, so the window of an activity is never reported as
+        // visible unless it is done manually
+        Object viewRoot = ReflectionHelpers.callInstanceMethod(
+                activity.getWindow().getDecorView(), "getViewRootImpl");
+        ReflectionHelpers.callInstanceMethod(viewRoot, "dispatchAppVisibility",
+                ReflectionHelpers.ClassParameter.from(boolean.class, true));
+        ShadowLooper.idleMainLooper();
+    }
+
+    private static void runFrames(int count) {
+        for (int i = 0; i < count; i++) {
+            ShadowLooper.idleMainLooper(FRAME_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void layOut() {
+        mLayout.measure(View.MeasureSpec.makeMeasureSpec(LAYOUT_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(LAYOUT_HEIGHT, View.MeasureSpec.EXACTLY));
+        mLayout.layout(0, 0, LAYOUT_WIDTH, LAYOUT_HEIGHT);
+    }
+
+    private static AttributeSet createAttributes(boolean lazyProgressView) {
+        return Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.progressViewClass, TestProgressView.class.getName())
+                .addAttribute(R.attr.lazyProgressView, String.valueOf(lazyProgressView))
+                .build();
+    }
+
+    private void prepareForDrag(CustomizableSwipeRefreshLayout.OnRefreshListener listener) {
+        // Parent is asked not to intercept touch events while the progress view is dragged
+        new FrameLayout(mContext).addView(mLayout);
+        mLayout.addView(new ScrollableView(mContext, false));
+        mLayout.setRefreshDispatchMode(
+                CustomizableSwipeRefreshLayout.REFRESH_DISPATCH_ON_THRESHOLD);
+        mLayout.setOnRefreshListener(listener);
+    }
+
+    private void dispatchTouch(int action, float y) {
+        MotionEvent event = MotionEvent.obtain(0, 0, action, 0, y, 0);
+        mLayout.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private View findProgressView() {
+        for (int i = 0; i < mLayout.getChildCount(); i++) {
+            if (mLayout.getChildAt(i) instanceof BaseProgressView) {
+                return mLayout.getChildAt(i);
+            }
+        }
+        throw new AssertionError("Progress view is not added");
+    }
+
+    public static class FactoryProgressView extends TestProgressView {
+
+        public FactoryProgressView(Context context) {
+            super(context);
+        }
+    }
+
+    private static class TestFactory implements CustomizableSwipeRefreshLayout.ProgressViewFactory {
+
+        String mClassName;
+
+        @Nullable
+        @Override
+        public BaseProgressView createProgressView(@NonNull Context context,
+                                                   @NonNull String className) {
+            mClassName = className;
+            return new FactoryProgressView(context);
+        }
+    }
+
+    private static class CountingRefreshListener
+            implements CustomizableSwipeRefreshLayout.OnRefreshListener {
+
+        int mRefreshCount;
+
+        @Override
+        public void onRefresh() {
+            mRefreshCount++;
+        }
+    }
+
+    private static class LayoutCountingView extends View {
+
+        int mRequestLayoutCount;
+
+        LayoutCountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            super.requestLayout();
+            mRequestLayoutCount++;
+        }
+    }
+
+    private static class ScrollableView extends View {
+
+        private final boolean mCanScrollUp;
+
+        ScrollableView(Context context, boolean canScrollUp) {
+            super(context);
+            mCanScrollUp = canScrollUp;
+        }
+
+        @Override
+        public boolean canScrollVertically(int direction) {
+            return direction < 0 && mCanScrollUp;
+        }
+    }
+}
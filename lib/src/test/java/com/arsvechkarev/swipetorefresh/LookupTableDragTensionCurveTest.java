@@ -0,0 +1,61 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LookupTableDragTensionCurveTest {
+
+    // Pairs of total drag distance and slingshot distance in pixels
+    private static final float[][] DRAG_PARAMETERS = {
+            {168f, 168f},
+            {64f, 64f},
+            {100f, 300f},
+            {300f, 50f},
+            {1000f, 1000f},
+    };
+
+    private static final float MAX_ERROR_PX = 1f;
+
+    @Test
+    public void matchesOriginalFormulaAcrossDragRange() {
+        LookupTableDragTensionCurve curve = new LookupTableDragTensionCurve();
+        for (float[] parameters : DRAG_PARAMETERS) {
+            float totalDragDistance = parameters[0];
+            float slingshotDistance = parameters[1];
+            curve.setDragParameters(totalDragDistance, slingshotDistance);
+            // Go past the end of the table to cover the flat part of the curve too
+            float maxOverscroll = totalDragDistance + slingshotDistance * 3;
+            for (float overscroll = 0; overscroll <= maxOverscroll; overscroll += 0.25f) {
+                float expected = originalOffset(overscroll, totalDragDistance, slingshotDistance);
+                assertEquals("overscroll " + overscroll + " with " + totalDragDistance + "/"
+                                + slingshotDistance,
+                        expected, curve.getSpinnerOffset(overscroll), MAX_ERROR_PX);
+            }
+        }
+    }
+
+    @Test
+    public void tableIsRebuiltWhenParametersChange() {
+        LookupTableDragTensionCurve curve = new LookupTableDragTensionCurve();
+        curve.setDragParameters(100f, 100f);
+        curve.setDragParameters(200f, 50f);
+        assertEquals(originalOffset(150f, 200f, 50f), curve.getSpinnerOffset(150f), MAX_ERROR_PX);
+    }
+
+    /**
+     * Offset of the spinner computed the way moveSpinner did it before the lookup table.
+     */
+    private static float originalOffset(float overscrollTop, float totalDragDistance,
+                                        float slingshotDist) {
+        float originalDragPercent = overscrollTop / totalDragDistance;
+        float dragPercent = Math.min(1f, Math.abs(originalDragPercent));
+        float extraOS = Math.abs(overscrollTop) - totalDragDistance;
+        float tensionSlingshotPercent = Math.max(0, Math.min(extraOS, slingshotDist * 2)
+                / slingshotDist);
+        float tensionPercent = (float) ((tensionSlingshotPercent / 4) - Math.pow(
+                (tensionSlingshotPercent / 4), 2)) * 2f;
+        float extraMove = slingshotDist * tensionPercent * 2;
+        return (slingshotDist * dragPercent) + extraMove;
+    }
+}
@@ -0,0 +1,46 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParticleSystemTest {
+
+    @Test
+    public void updateRemovesOnlyParticlesWhoseLifeIsOver() {
+        ParticleSystem particles = new ParticleSystem(10);
+        particles.emit(0, 0, 0, 0, 1f);
+        particles.emit(0, 0, 0, 0, 0.5f);
+        particles.emit(0, 0, 0, 0, 2f);
+
+        particles.update(0.75f);
+        assertEquals(2, particles.getParticleCount());
+
+        particles.update(0.5f);
+        assertEquals(1, particles.getParticleCount());
+
+        particles.update(1f);
+        assertEquals(0, particles.getParticleCount());
+    }
+
+    @Test
+    public void particlesAreNotEmittedPastCapacity() {
+        ParticleSystem particles = new ParticleSystem(2);
+        assertTrue(particles.emit(0, 0, 0, 0, 1f));
+        assertTrue(particles.emit(0, 0, 0, 0, 1f));
+        assertFalse(particles.emit(0, 0, 0, 0, 1f));
+
+        particles.clear();
+        particles.emitBurst(5, 0, 0, 1f, 2f, 1f);
+        assertEquals(2, particles.getParticleCount());
+    }
+
+    @Test
+    public void particlesWithoutLifeAreNotEmitted() {
+        ParticleSystem particles = new ParticleSystem(2);
+        assertFalse(particles.emit(0, 0, 0, 0, 0f));
+        assertEquals(0, particles.getParticleCount());
+    }
+}
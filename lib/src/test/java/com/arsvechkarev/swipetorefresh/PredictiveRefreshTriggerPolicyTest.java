@@ -0,0 +1,40 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PredictiveRefreshTriggerPolicyTest {
+
+    private static final float DECELERATION = 1000f;
+
+    private static final float TOTAL_DRAG_DISTANCE = 100f;
+
+    private final PredictiveRefreshTriggerPolicy mPolicy =
+            new PredictiveRefreshTriggerPolicy(DECELERATION);
+
+    @Test
+    public void releasePastThresholdTriggersRefresh() {
+        assertTrue(mPolicy.shouldTriggerRefresh(101f, 0f, TOTAL_DRAG_DISTANCE));
+        assertTrue(mPolicy.shouldTriggerRefresh(101f, -1000f, TOTAL_DRAG_DISTANCE));
+    }
+
+    @Test
+    public void fastReleaseThatWouldReachThresholdTriggersRefresh() {
+        // Travels 300^2 / (2 * 1000) = 45 more pixels
+        assertTrue(mPolicy.shouldTriggerRefresh(60f, 300f, TOTAL_DRAG_DISTANCE));
+    }
+
+    @Test
+    public void slowReleaseBeforeThresholdDoesNotTriggerRefresh() {
+        // Travels 200^2 / (2 * 1000) = 20 more pixels
+        assertFalse(mPolicy.shouldTriggerRefresh(60f, 200f, TOTAL_DRAG_DISTANCE));
+        assertFalse(mPolicy.shouldTriggerRefresh(90f, -300f, TOTAL_DRAG_DISTANCE));
+    }
+
+    @Test
+    public void shortFlickDoesNotTriggerRefresh() {
+        assertFalse(mPolicy.shouldTriggerRefresh(40f, 10_000f, TOTAL_DRAG_DISTANCE));
+    }
+}
@@ -0,0 +1,71 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.app.Activity;
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class ProgressViewPrewarmerTest {
+
+    private static final String CLASS_NAME = TestProgressView.class.getName();
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @After
+    public void tearDown() {
+        ProgressViewPrewarmer.clear();
+    }
+
+    @Test
+    public void prewarmedInstanceIsTakenOnlyWithSameContext() {
+        Context context = RuntimeEnvironment.getApplication();
+        ProgressViewPrewarmer.prewarm(context, CLASS_NAME, 1, DIRECT_EXECUTOR);
+
+        Activity otherContext = Robolectric.buildActivity(Activity.class).create().get();
+        assertNull(ProgressViewPrewarmer.obtain(otherContext, CLASS_NAME));
+        BaseProgressView progressView = ProgressViewPrewarmer.obtain(context, CLASS_NAME);
+        assertNotNull(progressView);
+        assertSame(context, progressView.getContext());
+        assertNull(ProgressViewPrewarmer.obtain(context, CLASS_NAME));
+    }
+
+    @Test
+    public void instancesAreDroppedWhenActivityIsDestroyed() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class)
+                .create();
+        Activity activity = controller.get();
+        ProgressViewPrewarmer.prewarm(activity, CLASS_NAME, 2, DIRECT_EXECUTOR);
+
+        controller.destroy();
+
+        assertNull(ProgressViewPrewarmer.obtain(activity, CLASS_NAME));
+    }
+
+    @Test
+    public void failedCreationIsNotThrown() {
+        Context context = RuntimeEnvironment.getApplication();
+        String className = "com.arsvechkarev.swipetorefresh.MissingProgressView";
+
+        ProgressViewPrewarmer.prewarm(context, className, 1, DIRECT_EXECUTOR);
+
+        assertNull(ProgressViewPrewarmer.obtain(context, className));
+    }
+}
@@ -0,0 +1,70 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RefreshMetricsTest {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private static final long FRAME_INTERVAL_NANOS = 16_666_667L;
+
+    @Test
+    public void frameOnTimeIsNotDropped() {
+        RefreshMetrics metrics = new RefreshMetrics();
+        metrics.recordFrame(FRAME_INTERVAL_NANOS, FRAME_INTERVAL_NANOS);
+
+        assertEquals(1, metrics.getDragFrames());
+        assertEquals(0, metrics.getDroppedFrames());
+        assertEquals(1, metrics.getFrameCountInBucket(bucketOf(metrics, 16)));
+    }
+
+    @Test
+    public void longFrameCountsMissedFrames() {
+        RefreshMetrics metrics = new RefreshMetrics();
+        metrics.recordFrame(50 * NANOS_PER_MILLI, FRAME_INTERVAL_NANOS);
+
+        assertEquals(1, metrics.getDragFrames());
+        assertEquals(2, metrics.getDroppedFrames());
+        assertEquals(1, metrics.getFrameCountInBucket(bucketOf(metrics, 50)));
+    }
+
+    @Test
+    public void veryLongFrameFallsIntoLastBucket() {
+        RefreshMetrics metrics = new RefreshMetrics();
+        metrics.recordFrame(1000 * NANOS_PER_MILLI, FRAME_INTERVAL_NANOS);
+
+        int lastBucket = metrics.getFrameDurationBucketCount() - 1;
+        assertEquals(Integer.MAX_VALUE, metrics.getFrameDurationBucketBoundMs(lastBucket));
+        assertEquals(1, metrics.getFrameCountInBucket(lastBucket));
+    }
+
+    @Test
+    public void clearResetsAllValues() {
+        RefreshMetrics metrics = new RefreshMetrics();
+        metrics.recordFrame(50 * NANOS_PER_MILLI, FRAME_INTERVAL_NANOS);
+        metrics.addMoveSpinnerNanos(100);
+        metrics.setReleaseToRefreshNanos(100);
+        metrics.setStopToResetNanos(100);
+
+        metrics.clear();
+
+        assertEquals(0, metrics.getDragFrames());
+        assertEquals(0, metrics.getDroppedFrames());
+        assertEquals(0, metrics.getMoveSpinnerNanos());
+        assertEquals(RefreshMetrics.NOT_MEASURED, metrics.getReleaseToRefreshNanos());
+        assertEquals(RefreshMetrics.NOT_MEASURED, metrics.getStopToResetNanos());
+        for (int bucket = 0; bucket < metrics.getFrameDurationBucketCount(); bucket++) {
+            assertEquals(0, metrics.getFrameCountInBucket(bucket));
+        }
+    }
+
+    private static int bucketOf(RefreshMetrics metrics, int durationMs) {
+        int bucket = 0;
+        while (durationMs > metrics.getFrameDurationBucketBoundMs(bucket)) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,64 @@
+package com.arsvechkarev.swipetorefresh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpringSimulationTest {
+
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    // Upper bound of frames a spring takes to come to rest in these tests
+    private static final int MAX_FRAMES = 300;
+
+    @Test
+    public void springComesToRestAtFinalPosition() {
+        for (float dampingRatio : new float[]{0.5f, 1f, 2f}) {
+            SpringSimulation spring = new SpringSimulation(1500f, dampingRatio);
+            spring.start(0f, 2000f, 100f);
+            int frames = 0;
+            while (!spring.update(FRAME_NANOS)) {
+                assertTrue("Damping ratio " + dampingRatio, ++frames < MAX_FRAMES);
+            }
+            assertEquals(100f, spring.getValue(), 0f);
+            assertEquals(0f, spring.getVelocity(), 0f);
+        }
+    }
+
+    @Test
+    public void underdampedSpringOvershoots() {
+        SpringSimulation spring = new SpringSimulation(1500f, 0.3f);
+        spring.start(0f, 0f, 100f);
+        float maxValue = 0f;
+        for (int frame = 0; frame < MAX_FRAMES && !spring.update(FRAME_NANOS); frame++) {
+            maxValue = Math.max(maxValue, spring.getValue());
+        }
+        assertTrue(maxValue > 100f);
+    }
+
+    @Test
+    public void resultDoesNotDependOnFrameRate() {
+        SpringSimulation oneFrame = new SpringSimulation(1500f, 0.5f);
+        SpringSimulation twoFrames = new SpringSimulation(1500f, 0.5f);
+        oneFrame.start(0f, 500f, 100f);
+        twoFrames.start(0f, 500f, 100f);
+
+        oneFrame.update(FRAME_NANOS * 2);
+        twoFrames.update(FRAME_NANOS);
+        twoFrames.update(FRAME_NANOS);
+
+        assertEquals(oneFrame.getValue(), twoFrames.getValue(), 0.01f);
+        assertEquals(oneFrame.getVelocity(), twoFrames.getVelocity(), 0.1f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stiffnessShouldBePositive() {
+        new SpringSimulation(0f, 1f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dampingRatioShouldBePositive() {
+        new SpringSimulation(1500f, 0f);
+    }
+}
@@ -0,0 +1,21 @@
+package com.arsvechkarev.swipetorefresh;
+
+import android.content.Context;
+
+/**
+ * Progress view that doesn't draw anything, used to create layouts in tests.
+ */
+public class TestProgressView extends BaseProgressView {
+
+    public TestProgressView(Context context) {
+        super(context);
+    }
+
+    @Override
+    public void onStartAnimatingToIdlePosition() {
+    }
+
+    @Override
+    public void onEndAnimatingToIdlePosition() {
+    }
+}